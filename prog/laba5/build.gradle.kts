@@ -5,6 +5,7 @@ plugins {
     java
     application
     id("com.github.johnrengelman.shadow") version "8.1.1"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 java {
@@ -54,6 +55,12 @@ tasks.test {
     useJUnitPlatform()
 }
 
+// Бенчмарки JMH лежат в src/jmh/java и запускаются задачей `jmh`
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
+}
+
 // Настраиваем задачу shadowJar
 //tasks.shadowJar {
 //    // Указываем, что этот JAR должен быть исполняемым
@@ -0,0 +1,83 @@
+package benchmarks;
+
+import com.google.gson.*;
+import com.google.gson.reflect.TypeToken;
+import managers.*;
+import moduls.Coordinates;
+import moduls.Location;
+import moduls.Movie;
+import moduls.Person;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение рукописных потоковых адаптеров с рефлексивной сериализацией Gson.
+ * Базовый вариант повторяет прежнюю схему: рефлексия для классов модели и дата через JsonElement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdapterBenchmark {
+    private static final Type LIST = new TypeToken<List<Movie>>() {
+    }.getType();
+
+    /**
+     * Прежний адаптер даты через дерево JsonElement
+     */
+    private static class TreeLocalDateAdapter implements JsonSerializer<LocalDate>, JsonDeserializer<LocalDate> {
+        @Override
+        public JsonElement serialize(LocalDate src, Type typeOfSrc, JsonSerializationContext context) {
+            return new JsonPrimitive(src.toString());
+        }
+
+        @Override
+        public LocalDate deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) {
+            return LocalDate.parse(json.getAsString());
+        }
+    }
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"reflective", "adapters"})
+    public String mode;
+
+    private Gson gson;
+    private List<Movie> movies;
+    private String json;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GsonBuilder builder = new GsonBuilder();
+        if (mode.equals("reflective")) {
+            builder.registerTypeAdapter(LocalDate.class, new TreeLocalDateAdapter());
+        } else {
+            builder.registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+                    .registerTypeAdapter(Coordinates.class, new CoordinatesAdapter())
+                    .registerTypeAdapter(Location.class, new LocationAdapter())
+                    .registerTypeAdapter(Person.class, new PersonAdapter())
+                    .registerTypeAdapter(Movie.class, new MovieAdapter());
+        }
+        gson = builder.serializeNulls().create();
+        movies = Arrays.asList(new MovieGenerator(42).generate(size));
+        json = gson.toJson(movies, LIST);
+    }
+
+    @Benchmark
+    public String write() {
+        return gson.toJson(movies, LIST);
+    }
+
+    @Benchmark
+    public List<Movie> read() {
+        return gson.fromJson(json, LIST);
+    }
+}
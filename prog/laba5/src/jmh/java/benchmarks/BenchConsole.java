@@ -0,0 +1,54 @@
+package benchmarks;
+
+import utility.Console;
+
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+/**
+ * Консоль для бенчмарков: ничего не выводит и не имеет пользовательского ввода.
+ */
+public class BenchConsole implements Console {
+    @Override
+    public void print(Object obj) {
+    }
+
+    @Override
+    public void println(Object obj) {
+    }
+
+    @Override
+    public String readln() {
+        throw new NoSuchElementException("Ввод в бенчмарке недоступен");
+    }
+
+    @Override
+    public boolean isCanReadln() {
+        return false;
+    }
+
+    @Override
+    public void printError(Object obj) {
+    }
+
+    @Override
+    public void printTable(Object obj1, Object obj2) {
+    }
+
+    @Override
+    public void prompt() {
+    }
+
+    @Override
+    public String getPrompt() {
+        return "";
+    }
+
+    @Override
+    public void selectFileScanner(Scanner obj) {
+    }
+
+    @Override
+    public void selectConsoleScanner() {
+    }
+}
@@ -0,0 +1,90 @@
+package benchmarks;
+
+import managers.CollectionManager;
+import moduls.Movie;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Основные операции CollectionManager на коллекциях разного размера.
+ * Операции, изменяющие коллекцию, возвращают ее в исходное состояние в том же вызове,
+ * поэтому размер коллекции не меняется между итерациями.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CollectionManagerBenchmark {
+    /**
+     * количество запросов в одном вызове бенчмарка
+     */
+    private static final int BATCH = 1024;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private CollectionManager collectionManager;
+    private long[] probes;
+    private Movie[] extra;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var generator = new MovieGenerator(42);
+        collectionManager = MovieGenerator.populate(generator.generate(size));
+        Random random = new Random(7);
+        probes = new long[BATCH];
+        for (int i = 0; i < BATCH; i++) probes[i] = 1 + random.nextInt(size);
+        extra = new Movie[BATCH];
+        for (int i = 0; i < BATCH; i++) extra[i] = generator.next(size + 1 + i);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void getById(Blackhole blackhole) {
+        for (long id : probes) blackhole.consume(collectionManager.getById(id));
+    }
+
+    @Benchmark
+    public Long getFreeId() {
+        return collectionManager.getFreeId();
+    }
+
+    /**
+     * Добавление новых фильмов и их удаление
+     */
+    @Benchmark
+    @OperationsPerInvocation(2 * BATCH)
+    public void addThenRemove() {
+        for (Movie movie : extra) collectionManager.add(movie);
+        for (Movie movie : extra) collectionManager.remove(movie.getId());
+    }
+
+    /**
+     * Удаление существующих фильмов и их возврат
+     */
+    @Benchmark
+    @OperationsPerInvocation(2 * BATCH)
+    public void removeThenAdd(Blackhole blackhole) {
+        for (long id : probes) {
+            Movie movie = collectionManager.getById(id);
+            if (movie == null) continue;
+            collectionManager.remove(id);
+            collectionManager.add(movie);
+            blackhole.consume(movie);
+        }
+    }
+
+    /**
+     * Обход коллекции в естественном порядке.
+     * Отдельной сортировки больше нет: коллекция хранится упорядоченной, и это ее замена.
+     */
+    @Benchmark
+    public void sortedScan(Blackhole blackhole) {
+        for (Movie movie : collectionManager.getCollection()) blackhole.consume(movie);
+    }
+}
@@ -0,0 +1,107 @@
+package benchmarks;
+
+import commands.*;
+import managers.CollectionManager;
+import moduls.*;
+import org.openjdk.jmh.annotations.*;
+import utility.ExecutionResponse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Горячие пути команд на коллекциях разного размера.
+ * Ввод элементов подается через ScriptConsole, вывод отбрасывается.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CommandBenchmark {
+    private static final String[] NO_ARGUMENTS = {"", ""};
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private Movie[] movies;
+    private CollectionManager collectionManager;
+    private RemoveLower removeLower;
+    private AddIfMax addIfMax;
+    private AddIfMin addIfMin;
+    private SumOfOscarCount sumOfOscarCount;
+    private FilterLessThanScreenwriter filterLessThanScreenwriter;
+    private PrintDescending printDescending;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        movies = new MovieGenerator(42).generate(size);
+        collectionManager = MovieGenerator.populate(movies);
+        var location = new Location(0, 0, 0L, "Bench");
+        // элемент для сравнения меньше всех, у кого больше одного оскара: удаляется около 5% коллекции
+        var lower = new Movie(0, "M", new Coordinates(0, 0), 1, MovieGenre.ACTION, MpaaRating.G,
+                new Person("Bench", 170, Color.BLUE, location));
+        removeLower = new RemoveLower(new ScriptConsole(ScriptConsole.movieInput(lower)), collectionManager);
+        // один оскар: элемент никогда не превышает максимум, коллекция не меняется
+        addIfMax = new AddIfMax(new ScriptConsole(ScriptConsole.movieInput(lower)), collectionManager);
+        // двадцать оскаров и имя после всех сгенерированных: элемент никогда не меньше минимума
+        var upper = new Movie(0, "Z", new Coordinates(0, 0), 20, MovieGenre.ACTION, MpaaRating.G,
+                new Person("Bench", 170, Color.BLUE, location));
+        addIfMin = new AddIfMin(new ScriptConsole(ScriptConsole.movieInput(upper)), collectionManager);
+        sumOfOscarCount = new SumOfOscarCount(new BenchConsole(), collectionManager);
+        // рост генерируется в диапазоне [150, 210): под фильтр попадает около трети коллекции
+        var screenwriter = new Person("Bench", 170, Color.BLUE, location);
+        filterLessThanScreenwriter = new FilterLessThanScreenwriter(
+                new ScriptConsole(ScriptConsole.screenwriterInput(screenwriter)), collectionManager);
+        printDescending = new PrintDescending(new BenchConsole(), collectionManager);
+    }
+
+    /**
+     * Возвращает фильмы, удаленные remove_lower, чтобы каждый вызов работал с полной коллекцией
+     */
+    @Setup(Level.Invocation)
+    public void restore() {
+        if (collectionManager.getCollection().size() == movies.length) return;
+        for (Movie movie : movies) {
+            if (collectionManager.getById(movie.getId()) == null) collectionManager.add(movie);
+        }
+    }
+
+    @Benchmark
+    public ExecutionResponse removeLower() {
+        return removeLower.apply(NO_ARGUMENTS);
+    }
+
+    @Benchmark
+    public ExecutionResponse addIfMax() {
+        return addIfMax.apply(NO_ARGUMENTS);
+    }
+
+    @Benchmark
+    public ExecutionResponse addIfMin() {
+        return addIfMin.apply(NO_ARGUMENTS);
+    }
+
+    @Benchmark
+    public ExecutionResponse sumOfOscarCount() {
+        return sumOfOscarCount.apply(NO_ARGUMENTS);
+    }
+
+    @Benchmark
+    public ExecutionResponse filterLessThanScreenwriter() {
+        return filterLessThanScreenwriter.apply(NO_ARGUMENTS);
+    }
+
+    @Benchmark
+    public ExecutionResponse printDescending() {
+        return printDescending.apply(NO_ARGUMENTS);
+    }
+
+    /**
+     * Страница из 20 элементов из середины коллекции
+     */
+    @Benchmark
+    public ExecutionResponse printDescendingPage() {
+        return printDescending.apply(new String[]{"", "20 " + size / 2});
+    }
+}
@@ -0,0 +1,82 @@
+package benchmarks;
+
+import managers.CollectionManager;
+import managers.ConcurrentCollectionManager;
+import managers.DumpManager;
+import moduls.Movie;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Смесь чтений и записей из нескольких потоков.
+ * Чтение - getById или агрегаты, запись - удаление фильма и его возврат.
+ * Сравниваются ConcurrentCollectionManager (stamped) и обычный менеджер,
+ * у которого каждая операция выполняется в synchronized (synchronized).
+ * Масштабирование видно при запуске с разным числом потоков: -t 1,2,4,8,16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ConcurrentBenchmark {
+    @Param({"100000"})
+    public int size;
+
+    /**
+     * доля записей в процентах
+     */
+    @Param({"0", "5", "20"})
+    public int writePercent;
+
+    @Param({"stamped", "synchronized"})
+    public String lock;
+
+    private CollectionManager collectionManager;
+    private boolean coarse;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Movie[] movies = new MovieGenerator(42).generate(size);
+        coarse = lock.equals("synchronized");
+        collectionManager = coarse
+                ? new CollectionManager(new DumpManager("benchmark.json", new BenchConsole()))
+                : new ConcurrentCollectionManager(new DumpManager("benchmark.json", new BenchConsole()), null);
+        for (Movie movie : movies) collectionManager.add(movie);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final Random random = new Random(Thread.currentThread().getId());
+    }
+
+    @Benchmark
+    public void mixed(ThreadState state, Blackhole blackhole) {
+        if (coarse) {
+            synchronized (collectionManager) {
+                operation(state.random, blackhole);
+            }
+        } else {
+            operation(state.random, blackhole);
+        }
+    }
+
+    private void operation(Random random, Blackhole blackhole) {
+        long id = 1 + random.nextInt(size);
+        int roll = random.nextInt(100);
+        if (roll < writePercent) {
+            // Каждый поток возвращает тот же фильм, поэтому размер коллекции почти не меняется
+            Movie movie = collectionManager.getById(id);
+            if (movie != null && collectionManager.remove(id)) collectionManager.add(movie);
+            blackhole.consume(movie);
+        } else if ((roll & 1) == 0) {
+            blackhole.consume(collectionManager.getById(id));
+        } else {
+            blackhole.consume(collectionManager.getAggregates().getOscarsSum());
+        }
+    }
+}
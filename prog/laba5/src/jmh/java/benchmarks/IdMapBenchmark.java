@@ -0,0 +1,102 @@
+package benchmarks;
+
+import moduls.Movie;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import utility.LongMovieMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение LongMovieMap с HashMap&lt;Long, Movie&gt; на нагрузках индекса id:
+ * update (поиск и замена), remove_by_id (удаление и повторная вставка) и массовая загрузка.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdMapBenchmark {
+    /**
+     * количество запросов в одном вызове бенчмарка
+     */
+    private static final int BATCH = 1024;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Movie[] movies;
+    private long[] probes;
+    private Map<Long, Movie> hashMap;
+    private LongMovieMap longMap;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        movies = new MovieGenerator(42).generate(size);
+        hashMap = new HashMap<>();
+        longMap = new LongMovieMap();
+        for (Movie movie : movies) {
+            hashMap.put(movie.getId(), movie);
+            longMap.put(movie.getId(), movie);
+        }
+        Random random = new Random(7);
+        probes = new long[BATCH];
+        for (int i = 0; i < BATCH; i++) probes[i] = 1 + random.nextInt(size);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void updateHashMap(Blackhole blackhole) {
+        for (long id : probes) {
+            Movie old = hashMap.get(id);
+            blackhole.consume(hashMap.put(id, old));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void updateLongMap(Blackhole blackhole) {
+        for (long id : probes) {
+            Movie old = longMap.get(id);
+            blackhole.consume(longMap.put(id, old));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void removeByIdHashMap(Blackhole blackhole) {
+        for (long id : probes) {
+            Movie removed = hashMap.remove(id);
+            if (removed != null) hashMap.put(id, removed);
+            blackhole.consume(removed);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void removeByIdLongMap(Blackhole blackhole) {
+        for (long id : probes) {
+            Movie removed = longMap.remove(id);
+            if (removed != null) longMap.put(id, removed);
+            blackhole.consume(removed);
+        }
+    }
+
+    @Benchmark
+    public Map<Long, Movie> bulkLoadHashMap() {
+        Map<Long, Movie> map = new HashMap<>();
+        for (Movie movie : movies) map.put(movie.getId(), movie);
+        return map;
+    }
+
+    @Benchmark
+    public LongMovieMap bulkLoadLongMap() {
+        LongMovieMap map = new LongMovieMap();
+        for (Movie movie : movies) map.put(movie.getId(), movie);
+        return map;
+    }
+}
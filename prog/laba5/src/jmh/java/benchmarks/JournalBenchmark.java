@@ -0,0 +1,57 @@
+package benchmarks;
+
+import managers.JournalManager;
+import moduls.Movie;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость записи одной операции в журнал изменений для каждого режима надежности.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalBenchmark {
+    @Param({"FSYNC", "GROUP", "OS"})
+    public JournalManager.Durability durability;
+
+    private File file;
+    private JournalManager journalManager;
+    private Movie[] movies;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = File.createTempFile("collection", ".journal");
+        file.deleteOnExit();
+        journalManager = new JournalManager(file.getPath(), new BenchConsole(), durability);
+        movies = new MovieGenerator(42).generate(1024);
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        journalManager.discardUpTo(journalManager.mark());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journalManager.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public void logAdd() {
+        journalManager.logAdd(movies[next++ & (movies.length - 1)]);
+    }
+
+    @Benchmark
+    public void logRemove() {
+        journalManager.logRemove(next++);
+    }
+}
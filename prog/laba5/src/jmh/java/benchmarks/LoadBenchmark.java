@@ -0,0 +1,60 @@
+package benchmarks;
+
+import managers.CollectionManager;
+import managers.DumpManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность загрузки коллекции из файла в формате JSON и в двоичном формате.
+ * Счетчики records и bytes дают записи/с и байты/с (делить на 1e6 для МБ/с).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LoadBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"JSON", "BINARY"})
+    public DumpManager.Format format;
+
+    private File file;
+    private CollectionManager collectionManager;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long records;
+        public long bytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = File.createTempFile("collection", ".json");
+        file.deleteOnExit();
+        var console = new BenchConsole();
+        new DumpManager(file.getPath(), console, true, format).writeCollection(Arrays.asList(new MovieGenerator(42).generate(size)));
+        collectionManager = new CollectionManager(new DumpManager(file.getPath(), console));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public int loadCollection(Counters counters) {
+        if (!collectionManager.loadCollection()) throw new IllegalStateException("Коллекция не загружена");
+        counters.records += collectionManager.getCollection().size();
+        counters.bytes += file.length();
+        return collectionManager.getCollection().size();
+    }
+}
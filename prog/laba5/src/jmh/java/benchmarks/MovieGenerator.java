@@ -0,0 +1,72 @@
+package benchmarks;
+
+import managers.CollectionManager;
+import managers.DumpManager;
+import moduls.*;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Генератор синтетических фильмов для бенчмарков.
+ * Использует фиксированное зерно, поэтому при одинаковых параметрах наборы данных совпадают между запусками.
+ */
+public class MovieGenerator {
+    private static final String[] TITLES = {"Alien", "Brazil", "Casablanca", "Dune", "Fargo", "Heat", "Jaws", "Memento", "Psycho", "Vertigo"};
+    private static final String[] NAMES = {"Nolan", "Kubrick", "Scott", "Hitchcock", "Coen", "Mann", "Villeneuve", "Spielberg"};
+    private static final LocalDate EPOCH = LocalDate.of(2000, 1, 1);
+
+    private final Random random;
+
+    /**
+     * Конструктор
+     *
+     * @param seed зерно генератора случайных чисел
+     */
+    public MovieGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Создает фильм с заданным id и случайными остальными полями
+     *
+     * @param id id фильма
+     * @return сгенерированный фильм
+     */
+    public Movie next(long id) {
+        var location = new Location(random.nextDouble() * 1000 - 500, random.nextInt(2000) - 1000L,
+                (long) random.nextInt(2000) - 1000, NAMES[random.nextInt(NAMES.length)]);
+        var screenwriter = new Person(NAMES[random.nextInt(NAMES.length)], 150 + random.nextInt(60),
+                Color.values()[random.nextInt(Color.values().length)], location);
+        return new Movie(id, TITLES[random.nextInt(TITLES.length)] + " " + random.nextInt(1000),
+                new Coordinates(random.nextInt(1032) - 516, random.nextInt(2000) - 1000),
+                EPOCH.plusDays(random.nextInt(9000)), 1 + random.nextInt(20),
+                MovieGenre.values()[random.nextInt(MovieGenre.values().length)],
+                MpaaRating.values()[random.nextInt(MpaaRating.values().length)], screenwriter);
+    }
+
+    /**
+     * Создает массив фильмов с id от 1 до size
+     *
+     * @param size количество фильмов
+     * @return массив сгенерированных фильмов
+     */
+    public Movie[] generate(int size) {
+        Movie[] movies = new Movie[size];
+        for (int i = 0; i < size; i++) movies[i] = next(i + 1);
+        return movies;
+    }
+
+    /**
+     * Создает менеджер коллекции, заполненный фильмами.
+     * Файл менеджера не читается и не записывается.
+     *
+     * @param movies фильмы
+     * @return менеджер коллекции
+     */
+    public static CollectionManager populate(Movie[] movies) {
+        var collectionManager = new CollectionManager(new DumpManager("benchmark.json", new BenchConsole()));
+        for (Movie movie : movies) collectionManager.add(movie);
+        return collectionManager;
+    }
+}
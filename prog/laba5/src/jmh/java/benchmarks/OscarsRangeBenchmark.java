@@ -0,0 +1,59 @@
+package benchmarks;
+
+import managers.CollectionManager;
+import moduls.Movie;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Диапазонный запрос и top-N по oscarsCount: отрезок упорядоченной коллекции против полного обхода.
+ * Генератор дает oscarsCount от 1 до 20, поэтому диапазон [3, 4] выбирает около 10% коллекции.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OscarsRangeBenchmark {
+    private static final long FROM = 3;
+    private static final long TO = 4;
+    private static final int TOP = 20;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private CollectionManager collectionManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        collectionManager = MovieGenerator.populate(new MovieGenerator(42).generate(size));
+    }
+
+    @Benchmark
+    public long rangeIndex() {
+        return collectionManager.streamOscarsBetween(FROM, TO).count();
+    }
+
+    @Benchmark
+    public long rangeScan() {
+        return collectionManager.getCollection().stream()
+                .filter(movie -> movie.getOscarsCount() >= FROM && movie.getOscarsCount() <= TO)
+                .count();
+    }
+
+    @Benchmark
+    public Movie[] topIndex() {
+        return collectionManager.streamTopOscars(TOP).toArray(Movie[]::new);
+    }
+
+    @Benchmark
+    public Movie[] topScan() {
+        return collectionManager.getCollection().stream()
+                .sorted(Comparator.reverseOrder())
+                .limit(TOP)
+                .toArray(Movie[]::new);
+    }
+}
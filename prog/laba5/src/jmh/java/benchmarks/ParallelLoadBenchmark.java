@@ -0,0 +1,55 @@
+package benchmarks;
+
+import managers.DumpManager;
+import managers.MovieAdapter;
+import managers.ParallelLoader;
+import moduls.Movie;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Масштабирование параллельной загрузки по числу потоков ForkJoinPool.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParallelLoadBenchmark {
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int threads;
+
+    private File file;
+    private ForkJoinPool pool;
+    private ParallelLoader loader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = File.createTempFile("collection", ".json");
+        file.deleteOnExit();
+        new DumpManager(file.getPath(), new BenchConsole(), true, DumpManager.Format.JSON)
+                .writeCollection(Arrays.asList(new MovieGenerator(42).generate(size)));
+        pool = new ForkJoinPool(threads);
+        loader = new ParallelLoader(new MovieAdapter(), pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+        file.delete();
+    }
+
+    @Benchmark
+    public Movie[] load() throws Exception {
+        return loader.load(file.toPath());
+    }
+}
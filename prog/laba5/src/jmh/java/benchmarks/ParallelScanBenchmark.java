@@ -0,0 +1,67 @@
+package benchmarks;
+
+import moduls.Movie;
+import org.openjdk.jmh.annotations.*;
+import utility.PersistentMovieTree;
+import utility.QueryExecutor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный обход версии коллекции последовательно и в ForkJoinPool.
+ * Порог отключен (threshold = 0), поэтому при parallelism больше 1 обход всегда параллельный;
+ * размер, начиная с которого он обгоняет parallelism = 1, - точка перелома для QueryExecutor.DEFAULT_THRESHOLD
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParallelScanBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private PersistentMovieTree movies;
+    private QueryExecutor executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Movie[] sorted = new MovieGenerator(42).generate(size);
+        Arrays.sort(sorted);
+        movies = PersistentMovieTree.fromSorted(sorted);
+        executor = new QueryExecutor(parallelism, 0);
+    }
+
+    /**
+     * Отбор примерно трети элементов
+     */
+    @Benchmark
+    public List<Movie> filter() {
+        return executor.filter(movies, movie -> movie.getOscarsCount() % 3 == 0);
+    }
+
+    /**
+     * Дешевая операция на элемент: параллельность окупается только на больших коллекциях
+     */
+    @Benchmark
+    public long sum() {
+        return executor.collect(movies, () -> new long[1], (sum, movie) -> sum[0] += movie.getOscarsCount(), (left, right) -> {
+            left[0] += right[0];
+            return left;
+        })[0];
+    }
+
+    /**
+     * Дорогая операция на элемент, как в show
+     */
+    @Benchmark
+    public int format() {
+        return executor.collect(movies, StringBuilder::new, (chunk, movie) -> chunk.append(movie).append("\n\n"), StringBuilder::append).length();
+    }
+}
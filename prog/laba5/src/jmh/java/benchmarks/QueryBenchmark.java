@@ -0,0 +1,63 @@
+package benchmarks;
+
+import managers.CollectionManager;
+import moduls.Movie;
+import org.openjdk.jmh.annotations.*;
+import query.Query;
+import query.QueryParser;
+import query.QueryPlan;
+import query.QueryPlanner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запросы команды query: план, выбранный QueryPlanner, против полного обхода с сортировкой.
+ * Запросы подобраны так, чтобы планировщик выбирал разные способы доступа:
+ * поиск по id, битовые индексы, отрезок по oscarsCount и порядок по id
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class QueryBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({
+            "where id = 500",
+            "where genre = COMEDY and mpaaRating = R and screenwriter.height < 180",
+            "where oscarsCount >= 3 and oscarsCount <= 4 limit 50",
+            "where genre = COMEDY and oscarsCount > 3 and screenwriter.height < 180 order by id desc limit 50"
+    })
+    public String text;
+
+    private CollectionManager collectionManager;
+    private Query query;
+
+    @Setup(Level.Trial)
+    public void setUp() throws QueryParser.QueryException {
+        collectionManager = MovieGenerator.populate(new MovieGenerator(42).generate(size));
+        query = QueryParser.parse(text);
+    }
+
+    @Benchmark
+    public List<Movie> planned() {
+        return QueryPlanner.plan(query, collectionManager).execute(collectionManager);
+    }
+
+    @Benchmark
+    public QueryPlan planOnly() {
+        return QueryPlanner.plan(query, collectionManager);
+    }
+
+    @Benchmark
+    public List<Movie> fullScan() {
+        List<Movie> rows = new ArrayList<>(collectionManager.filter(movie -> query.getConditions().stream().allMatch(condition -> condition.test(movie))));
+        rows.sort(query.comparator());
+        return query.getLimit() == null || rows.size() <= query.getLimit() ? rows : rows.subList(0, query.getLimit().intValue());
+    }
+}
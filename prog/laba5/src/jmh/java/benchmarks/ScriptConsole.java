@@ -0,0 +1,70 @@
+package benchmarks;
+
+import moduls.Movie;
+import moduls.Person;
+
+/**
+ * Консоль для бенчмарков команд: ничего не выводит и по кругу отдает заранее заданные строки ввода.
+ */
+public class ScriptConsole extends BenchConsole {
+    private final String[] lines;
+    private int position;
+
+    /**
+     * Конструктор
+     *
+     * @param lines строки ввода, которые отдаются по кругу
+     */
+    public ScriptConsole(String... lines) {
+        this.lines = lines;
+    }
+
+    @Override
+    public String readln() {
+        String line = lines[position];
+        position = (position + 1) % lines.length;
+        return line;
+    }
+
+    @Override
+    public boolean isCanReadln() {
+        return true;
+    }
+
+    /**
+     * Строки ввода, на которые AskManager.askMovie соберет фильм с теми же полями
+     *
+     * @param movie фильм
+     * @return строки ввода
+     */
+    public static String[] movieInput(Movie movie) {
+        String[] screenwriter = screenwriterInput(movie.getScreenwriter());
+        String[] input = new String[6 + screenwriter.length];
+        input[0] = movie.getName();
+        input[1] = String.valueOf(movie.getOscarsCount());
+        input[2] = String.valueOf(movie.getCoordinates().getX());
+        input[3] = String.valueOf(movie.getCoordinates().getY());
+        input[4] = movie.getGenre().name();
+        input[5] = movie.getMpaaRating().name();
+        System.arraycopy(screenwriter, 0, input, 6, screenwriter.length);
+        return input;
+    }
+
+    /**
+     * Строки ввода, на которые AskManager.askScreenwriter соберет сценариста с теми же полями
+     *
+     * @param person сценарист
+     * @return строки ввода
+     */
+    public static String[] screenwriterInput(Person person) {
+        return new String[]{
+                person.getName(),
+                String.valueOf(person.getHeight()),
+                person.getEyeColor().name(),
+                String.valueOf(person.getLocation().getX()),
+                String.valueOf(person.getLocation().getY()),
+                String.valueOf(person.getLocation().getZ()),
+                person.getLocation().getName()
+        };
+    }
+}
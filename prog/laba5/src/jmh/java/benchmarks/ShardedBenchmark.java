@@ -0,0 +1,72 @@
+package benchmarks;
+
+import managers.CollectionManager;
+import managers.DumpManager;
+import managers.ShardedCollectionManager;
+import moduls.Movie;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность шардированной коллекции на 1, 4 и 16 шардах при записи из всех ядер.
+ * Запись - удаление фильма и его возврат (две операции над одним шардом), чтение - getById.
+ * При одном шарде все потоки ждут одну блокировку записи; с ростом числа шардов
+ * записи в разные шарды идут параллельно
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(Threads.MAX)
+public class ShardedBenchmark {
+    @Param({"100000"})
+    public int size;
+
+    @Param({"1", "4", "16"})
+    public int shards;
+
+    /**
+     * доля записей в процентах
+     */
+    @Param({"20", "100"})
+    public int writePercent;
+
+    private CollectionManager collectionManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        collectionManager = new ShardedCollectionManager(new DumpManager("benchmark.json", new BenchConsole()), null, shards);
+        for (Movie movie : new MovieGenerator(42).generate(size)) collectionManager.add(movie);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final Random random = new Random(Thread.currentThread().getId());
+    }
+
+    @Benchmark
+    public void mixed(ThreadState state, Blackhole blackhole) {
+        long id = 1 + state.random.nextInt(size);
+        if (state.random.nextInt(100) < writePercent) {
+            Movie movie = collectionManager.getById(id);
+            if (movie != null && collectionManager.remove(id)) collectionManager.add(movie);
+            blackhole.consume(movie);
+        } else {
+            blackhole.consume(collectionManager.getById(id));
+        }
+    }
+
+    /**
+     * Упорядоченный обход всей коллекции: k-путевое слияние версий шардов
+     */
+    @Benchmark
+    @Threads(1)
+    public void mergedScan(Blackhole blackhole) {
+        for (Movie movie : collectionManager.getCollection()) blackhole.consume(movie);
+    }
+}
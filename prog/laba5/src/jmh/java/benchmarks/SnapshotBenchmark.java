@@ -0,0 +1,59 @@
+package benchmarks;
+
+import managers.ConcurrentCollectionManager;
+import managers.DumpManager;
+import moduls.Movie;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Долгое чтение версии коллекции одновременно с записью.
+ * Читатель обходит всю зафиксированную версию (как show или сохранение), писатель удаляет и возвращает фильмы.
+ * Версии неизменяемы, поэтому пропускная способность писателя не должна падать от параллельного обхода
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SnapshotBenchmark {
+    @Param({"10000", "100000"})
+    public int size;
+
+    private ConcurrentCollectionManager collectionManager;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        collectionManager = new ConcurrentCollectionManager(new DumpManager("benchmark.json", new BenchConsole()), null);
+        for (Movie movie : new MovieGenerator(42).generate(size)) collectionManager.add(movie);
+        random = new Random(7);
+    }
+
+    /**
+     * Обход всей версии
+     */
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void scan(Blackhole blackhole) {
+        for (Movie movie : collectionManager.snapshot().getMovies()) blackhole.consume(movie);
+    }
+
+    /**
+     * Удаление фильма и его возврат: две новые версии
+     */
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void write(Blackhole blackhole) {
+        long id = 1 + random.nextInt(size);
+        Movie movie = collectionManager.getById(id);
+        if (movie != null && collectionManager.remove(id)) collectionManager.add(movie);
+        blackhole.consume(movie);
+    }
+}
@@ -0,0 +1,76 @@
+package benchmarks;
+
+import managers.CollectionManager;
+import moduls.Movie;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск k ближайших и выборка прямоугольника: пространственная сетка против полного обхода коллекции.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SpatialBenchmark {
+    private static final int K = 10;
+    /**
+     * сторона прямоугольника выборки
+     */
+    private static final int BOX = 50;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private CollectionManager collectionManager;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        collectionManager = MovieGenerator.populate(new MovieGenerator(42).generate(size));
+        random = new Random(7);
+    }
+
+    @Benchmark
+    public List<Movie> nearestGrid() {
+        return collectionManager.nearestMovies(random.nextInt(1032) - 516, random.nextInt(2000) - 1000, K);
+    }
+
+    @Benchmark
+    public List<Movie> nearestBruteForce() {
+        long x = random.nextInt(1032) - 516;
+        long y = random.nextInt(2000) - 1000;
+        return collectionManager.getCollection().stream()
+                .sorted(Comparator.comparingDouble((Movie movie) -> {
+                    double dx = movie.getCoordinates().getX() - x;
+                    double dy = movie.getCoordinates().getY() - y;
+                    return dx * dx + dy * dy;
+                }).thenComparingLong(Movie::getId))
+                .limit(K)
+                .toList();
+    }
+
+    @Benchmark
+    public long boxGrid() {
+        int x = random.nextInt(1032) - 516;
+        int y = random.nextInt(2000) - 1000;
+        return collectionManager.forEachInBox(x, y, x + BOX, y + BOX, movie -> {
+        });
+    }
+
+    @Benchmark
+    public long boxBruteForce() {
+        int x = random.nextInt(1032) - 516;
+        int y = random.nextInt(2000) - 1000;
+        return collectionManager.getCollection().stream()
+                .filter(movie -> movie.getCoordinates().getX() >= x && movie.getCoordinates().getX() <= x + BOX
+                        && movie.getCoordinates().getY() >= y && movie.getCoordinates().getY() <= y + BOX)
+                .count();
+    }
+}
@@ -6,7 +6,6 @@ import moduls.Movie;
 import utility.Console;
 import utility.ExecutionResponse;
 
-import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -30,7 +29,7 @@ public class AddIfMax extends Command {
             if (newMovie == null) return new ExecutionResponse(false, "Отмена...");
             List<String> errList = newMovie.validate();
             if (!errList.isEmpty()) return new ExecutionResponse(false, String.join("\n", errList));
-            Movie max = collectionManager.getCollection().stream().max(Comparator.naturalOrder()).orElse(null);
+            Movie max = collectionManager.getLast();
             if (max == null || newMovie.compareTo(max) > 0) {
                 collectionManager.add(newMovie);
                 return new ExecutionResponse("Элемент успешно добавлен!");
@@ -6,7 +6,6 @@ import moduls.Movie;
 import utility.Console;
 import utility.ExecutionResponse;
 
-import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -30,7 +29,7 @@ public class AddIfMin extends Command {
             if (newMovie == null) return new ExecutionResponse(false, "Отмена...");
             List<String> errList = newMovie.validate();
             if (!errList.isEmpty()) return new ExecutionResponse(false, String.join("\n", errList));
-            Movie min = collectionManager.getCollection().stream().min(Comparator.naturalOrder()).orElse(null);
+            Movie min = collectionManager.getFirst();
             if (min == null || newMovie.compareTo(min) < 0) {
                 collectionManager.add(newMovie);
                 return new ExecutionResponse("Элемент успешно добавлен!");
@@ -1,12 +1,9 @@
 package commands;
 
 import managers.CollectionManager;
-import moduls.Movie;
 import utility.Console;
 import utility.ExecutionResponse;
 
-import java.util.Iterator;
-
 /**
  * Класс команды для очищения коллекции
  */
@@ -43,12 +40,7 @@ public class Clear extends Command {
         if (!arguments[1].isEmpty())
             return new ExecutionResponse(false, "Неправильное количество аргументов!\nИспользование: '" + getName() + "'");
 
-        Iterator<Movie> iterator = collectionManager.getCollection().iterator();
-        while (iterator.hasNext()) {
-            Movie group = iterator.next();
-            collectionManager.remove(group.getId());
-        }
-        collectionManager.sort();
+        collectionManager.clear();
         return new ExecutionResponse("Коллекция очищена!");
     }
 }
\ No newline at end of file
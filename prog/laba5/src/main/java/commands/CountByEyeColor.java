@@ -0,0 +1,38 @@
+package commands;
+
+import managers.CollectionManager;
+import moduls.Color;
+import utility.Console;
+import utility.ExecutionResponse;
+
+import java.util.Set;
+
+/**
+ * Класс команды для подсчета элементов по цвету глаз сценариста (фильмы без сценариста не учитываются).
+ * Количество берется как мощность битовых множеств индекса
+ */
+public class CountByEyeColor extends Command {
+    private final CollectionManager collectionManager;
+
+    public CountByEyeColor(Console console, CollectionManager collectionManager) {
+        super("count_by_eye_color [color...]", "вывести количество элементов по цвету глаз сценариста или с одним из заданных цветов");
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public ExecutionResponse apply(String[] arguments) {
+        if (EnumArguments.isEmpty(arguments)) {
+            var s = new StringBuilder("Количество элементов по цвету глаз сценариста:");
+            collectionManager.countByEyeColor().forEach((color, count) -> s.append("\n ").append(color).append(": ").append(count));
+            return new ExecutionResponse(s.toString());
+        }
+        Set<Color> colors;
+        try {
+            colors = EnumArguments.parse(arguments, Color.class);
+        } catch (IllegalArgumentException e) {
+            return new ExecutionResponse(false, "Цвет глаз должен быть одним из: " + Color.names());
+        }
+        int count = collectionManager.countMatching(null, null, colors);
+        return new ExecutionResponse("Количество элементов: " + count);
+    }
+}
@@ -0,0 +1,38 @@
+package commands;
+
+import managers.CollectionManager;
+import moduls.MovieGenre;
+import utility.Console;
+import utility.ExecutionResponse;
+
+import java.util.Set;
+
+/**
+ * Класс команды для подсчета элементов по жанрам.
+ * Количество берется как мощность битовых множеств индекса
+ */
+public class CountByGenre extends Command {
+    private final CollectionManager collectionManager;
+
+    public CountByGenre(Console console, CollectionManager collectionManager) {
+        super("count_by_genre [genre...]", "вывести количество элементов по жанрам или с одним из заданных жанров");
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public ExecutionResponse apply(String[] arguments) {
+        if (EnumArguments.isEmpty(arguments)) {
+            var s = new StringBuilder("Количество элементов по жанрам:");
+            collectionManager.getAggregates().getGenreCounts().forEach((genre, count) -> s.append("\n ").append(genre).append(": ").append(count));
+            return new ExecutionResponse(s.toString());
+        }
+        Set<MovieGenre> genres;
+        try {
+            genres = EnumArguments.parse(arguments, MovieGenre.class);
+        } catch (IllegalArgumentException e) {
+            return new ExecutionResponse(false, "Жанр должен быть одним из: " + MovieGenre.names());
+        }
+        int count = collectionManager.countMatching(genres, null, null);
+        return new ExecutionResponse("Количество элементов: " + count);
+    }
+}
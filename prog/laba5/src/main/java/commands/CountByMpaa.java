@@ -0,0 +1,38 @@
+package commands;
+
+import managers.CollectionManager;
+import moduls.MpaaRating;
+import utility.Console;
+import utility.ExecutionResponse;
+
+import java.util.Set;
+
+/**
+ * Класс команды для подсчета элементов по рейтингам MPAA.
+ * Количество берется как мощность битовых множеств индекса
+ */
+public class CountByMpaa extends Command {
+    private final CollectionManager collectionManager;
+
+    public CountByMpaa(Console console, CollectionManager collectionManager) {
+        super("count_by_mpaa [mpaaRating...]", "вывести количество элементов по рейтингам MPAA или с одним из заданных рейтингов");
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public ExecutionResponse apply(String[] arguments) {
+        if (EnumArguments.isEmpty(arguments)) {
+            var s = new StringBuilder("Количество элементов по рейтингам MPAA:");
+            collectionManager.getAggregates().getRatingCounts().forEach((rating, count) -> s.append("\n ").append(rating).append(": ").append(count));
+            return new ExecutionResponse(s.toString());
+        }
+        Set<MpaaRating> ratings;
+        try {
+            ratings = EnumArguments.parse(arguments, MpaaRating.class);
+        } catch (IllegalArgumentException e) {
+            return new ExecutionResponse(false, "Рейтинг MPAA должен быть одним из: " + MpaaRating.names());
+        }
+        int count = collectionManager.countMatching(null, ratings, null);
+        return new ExecutionResponse("Количество элементов: " + count);
+    }
+}
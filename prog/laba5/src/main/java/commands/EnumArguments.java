@@ -0,0 +1,36 @@
+package commands;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Разбор аргументов команд, перечисляющих константы перечисления через пробел
+ */
+final class EnumArguments {
+    private EnumArguments() {
+    }
+
+    /**
+     * @param arguments аргументы команды
+     * @return true, если после имени команды ничего не указано
+     */
+    static boolean isEmpty(String[] arguments) {
+        return arguments.length < 2 || arguments[1].isBlank();
+    }
+
+    /**
+     * Разбирает список констант
+     *
+     * @param arguments аргументы команды
+     * @param type      класс перечисления
+     * @return множество указанных констант
+     * @throws IllegalArgumentException если имя не соответствует ни одной константе
+     */
+    static <E extends Enum<E>> Set<E> parse(String[] arguments, Class<E> type) {
+        Set<E> values = EnumSet.noneOf(type);
+        for (String name : arguments[1].trim().split("\\s+")) {
+            values.add(Enum.valueOf(type, name.toUpperCase()));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,32 @@
+package commands;
+
+import managers.CollectionManager;
+import query.QueryParser;
+import query.QueryPlanner;
+import utility.Console;
+import utility.ExecutionResponse;
+
+/**
+ * Класс команды для вывода плана выполнения запроса без его выполнения:
+ * выбранный способ доступа, ожидаемое количество строк, оценка стоимости и стоимости остальных способов
+ */
+public class Explain extends Command {
+    private final Console console;
+    private final CollectionManager collectionManager;
+
+    public Explain(Console console, CollectionManager collectionManager) {
+        super("explain [where условие {and условие}] [order by поле [asc|desc]] [limit N]", "вывести план выполнения запроса query");
+        this.console = console;
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public ExecutionResponse apply(String[] arguments) {
+        try {
+            var query = QueryParser.parse(arguments.length < 2 ? "" : arguments[1]);
+            return new ExecutionResponse(QueryPlanner.plan(query, collectionManager).toString());
+        } catch (QueryParser.QueryException e) {
+            return new ExecutionResponse(false, e.getMessage() + "\nИспользование: '" + getName() + "'");
+        }
+    }
+}
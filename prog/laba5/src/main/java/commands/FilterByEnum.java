@@ -0,0 +1,103 @@
+package commands;
+
+import managers.CollectionManager;
+import moduls.Movie;
+import moduls.MovieGenre;
+import moduls.MpaaRating;
+import utility.Console;
+import utility.ExecutionResponse;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Класс команды для вывода элементов, поле-перечисление которых совпадает с одним из заданных значений.
+ * Ответ строится по битовому индексу этого поля без обхода коллекции
+ *
+ * @param <E> тип перечисления
+ */
+public class FilterByEnum<E extends Enum<E>> extends Command {
+    /**
+     * Обращение к битовому индексу по одному полю-перечислению
+     *
+     * @param <E> тип перечисления
+     */
+    @FunctionalInterface
+    public interface Index<E extends Enum<E>> {
+        /**
+         * Передает в action каждый элемент с одним из заданных значений
+         *
+         * @return количество таких элементов
+         */
+        int forEachMatching(CollectionManager collectionManager, Set<E> values, Consumer<Movie> action);
+    }
+
+    private final Console console;
+    private final CollectionManager collectionManager;
+    private final Class<E> type;
+    private final String field;
+    private final Index<E> index;
+
+    /**
+     * @param field название поля в именительном падеже со строчной буквы, например "жанр"
+     */
+    public FilterByEnum(String name, String description, Console console, CollectionManager collectionManager,
+                        Class<E> type, String field, Index<E> index) {
+        super(name, description);
+        this.console = console;
+        this.collectionManager = collectionManager;
+        this.type = type;
+        this.field = field;
+        this.index = index;
+    }
+
+    /**
+     * @return команда filter_by_genre
+     */
+    public static FilterByEnum<MovieGenre> byGenre(Console console, CollectionManager collectionManager) {
+        return new FilterByEnum<>("filter_by_genre genre...", "вывести элементы, жанр которых совпадает с одним из заданных",
+                console, collectionManager, MovieGenre.class, "жанр",
+                (manager, genres, action) -> manager.forEachMatching(genres, null, null, action));
+    }
+
+    /**
+     * @return команда filter_by_mpaa
+     */
+    public static FilterByEnum<MpaaRating> byMpaa(Console console, CollectionManager collectionManager) {
+        return new FilterByEnum<>("filter_by_mpaa mpaaRating...", "вывести элементы, рейтинг MPAA которых совпадает с одним из заданных",
+                console, collectionManager, MpaaRating.class, "рейтинг MPAA",
+                (manager, ratings, action) -> manager.forEachMatching(null, ratings, null, action));
+    }
+
+    @Override
+    public ExecutionResponse apply(String[] arguments) {
+        if (EnumArguments.isEmpty(arguments)) {
+            return new ExecutionResponse(false, "Не указан " + field + "!\nИспользование: '" + getName() + "' (" + names() + ")");
+        }
+        Set<E> values;
+        try {
+            values = EnumArguments.parse(arguments, type);
+        } catch (IllegalArgumentException e) {
+            return new ExecutionResponse(false, Character.toUpperCase(field.charAt(0)) + field.substring(1)
+                    + " должен быть одним из: " + names());
+        }
+        boolean[] first = {true};
+        int count = index.forEachMatching(collectionManager, values, movie -> print(movie, first));
+        if (count == 0) return new ExecutionResponse("Нет подходящих элементов.");
+        return new ExecutionResponse("\nНайдено элементов: " + count);
+    }
+
+    private String names() {
+        var nameList = new StringBuilder();
+        for (E value : type.getEnumConstants()) {
+            nameList.append(value.name()).append(", ");
+        }
+        return nameList.substring(0, nameList.length() - 2);
+    }
+
+    private void print(Movie movie, boolean[] first) {
+        if (!first[0]) console.println("");
+        console.println(movie);
+        first[0] = false;
+    }
+}
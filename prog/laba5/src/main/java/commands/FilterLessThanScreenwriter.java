@@ -2,14 +2,10 @@ package commands;
 
 import managers.AskManager;
 import managers.CollectionManager;
-import moduls.Movie;
 import moduls.Person;
 import utility.Console;
 import utility.ExecutionResponse;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 /**
  * Команда для фильтрации фильмов по сценаристу.
  * 
@@ -19,10 +15,10 @@ import java.util.stream.Collectors;
  * 
  * Алгоритм работы:
  * 1. Запрашивает у пользователя данные сценариста для сравнения
- * 2. Фильтрует коллекцию фильмов, оставляя только те, у которых:
+ * 2. Находит в индексе сценаристов фильмы, у которых:
  *    - Сценарист не равен null
  *    - Сценарист "меньше" заданного (согласно compareTo)
- * 3. Возвращает отфильтрованный список в виде строки
+ * 3. Выводит найденные фильмы в консоль по мере обхода индекса
  * 
  * Использование: filter_less_than_screenwriter screenwriter
  * 
@@ -54,17 +50,16 @@ public class FilterLessThanScreenwriter extends Command {
      * Процесс выполнения:
      * 1. Запрашивает данные сценариста для сравнения через AskManager
      * 2. Если пользователь отменил ввод, возвращает сообщение об отмене
-     * 3. Фильтрует коллекцию фильмов, используя Stream API:
-     *    - Исключает фильмы с null-сценаристом
-     *    - Оставляет только фильмы, где сценарист "меньше" заданного
-     * 4. Если подходящих фильмов нет, возвращает соответствующее сообщение
-     * 5. Формирует результат в виде строки с описаниями найденных фильмов
+     * 3. Берет из индекса сценаристов CollectionManager все фильмы, сценарист которых
+     *    "меньше" заданного (фильмы без сценариста в индекс не входят)
+     * 4. Выводит найденные фильмы в консоль по одному, не собирая их в список
+     * 5. Если подходящих фильмов нет, возвращает соответствующее сообщение
      * 
      * Обрабатываемые исключения:
      * - AskManager.AskBreak: пользователь прервал ввод данных
      * 
      * @param arguments аргументы команды (в данной команде не используются)
-     * @return результат выполнения команды с отфильтрованными фильмами
+     * @return результат выполнения команды с количеством найденных фильмов
      */
     @Override
     public ExecutionResponse apply(String[] arguments) {
@@ -76,26 +71,22 @@ public class FilterLessThanScreenwriter extends Command {
             // Проверка на отмену ввода
             if (comparePerson == null) return new ExecutionResponse(false, "Отмена...");
             
-            // Фильтрация коллекции фильмов
-            // Используем Stream API для эффективной обработки
-            List<Movie> filtered = collectionManager.getCollection().stream()
-                // Фильтруем фильмы: исключаем null-сценаристов и оставляем "меньшие"
-                .filter(m -> m.getScreenwriter() != null && m.getScreenwriter().compareTo(comparePerson) < 0)
-                .collect(Collectors.toList());
+            // Диапазон индекса сценаристов: фильмы выводятся сразу, разделенные пустой строкой
+            boolean[] first = {true};
+            int count = collectionManager.forEachWithScreenwriterLessThan(comparePerson, movie -> {
+                if (!first[0]) console.println("");
+                console.println(movie);
+                first[0] = false;
+            });
             
             // Проверка наличия подходящих фильмов
-            if (filtered.isEmpty()) return new ExecutionResponse("Нет подходящих элементов.");
-            
-            // Формирование результата: преобразование фильмов в строки и объединение
-            String result = filtered.stream()
-                .map(Movie::toString)
-                .collect(Collectors.joining("\n\n"));
+            if (count == 0) return new ExecutionResponse("Нет подходящих элементов.");
             
-            return new ExecutionResponse(result);
+            return new ExecutionResponse("\nНайдено элементов: " + count);
             
         } catch (AskManager.AskBreak e) {
             // Обработка прерывания ввода пользователем
             return new ExecutionResponse(false, "Отмена...");
         }
     }
-} 
\ No newline at end of file
+} 
@@ -0,0 +1,45 @@
+package commands;
+
+import managers.CollectionManager;
+import utility.Console;
+import utility.ExecutionResponse;
+
+/**
+ * Класс команды для вывода элементов с oscarsCount в заданном диапазоне.
+ * Элементы берутся из отрезка упорядоченной коллекции и выводятся по одному
+ */
+public class FilterOscarsBetween extends Command {
+    private final Console console;
+    private final CollectionManager collectionManager;
+
+    public FilterOscarsBetween(Console console, CollectionManager collectionManager) {
+        super("filter_oscars_between from to", "вывести элементы, значение поля oscarsCount которых лежит в диапазоне [from, to]");
+        this.console = console;
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public ExecutionResponse apply(String[] arguments) {
+        String[] bounds = arguments.length < 2 || arguments[1].isBlank() ? new String[0] : arguments[1].trim().split("\\s+");
+        if (bounds.length != 2) {
+            return new ExecutionResponse(false, "Неправильное количество аргументов!\nИспользование: '" + getName() + "'");
+        }
+        long from;
+        long to;
+        try {
+            from = Long.parseLong(bounds[0]);
+            to = Long.parseLong(bounds[1]);
+        } catch (NumberFormatException e) {
+            return new ExecutionResponse(false, "Границы диапазона должны быть целыми числами!");
+        }
+        if (from > to) return new ExecutionResponse(false, "Нижняя граница больше верхней!");
+
+        long[] count = {0};
+        collectionManager.streamOscarsBetween(from, to).forEach(movie -> {
+            if (count[0]++ > 0) console.println("");
+            console.println(movie);
+        });
+        if (count[0] == 0) return new ExecutionResponse("Нет подходящих элементов.");
+        return new ExecutionResponse("\nНайдено элементов: " + count[0]);
+    }
+}
@@ -52,10 +52,20 @@ public class Info extends Command {
                 lastSaveTime.toLocalDate().toString() + " " + lastSaveTime.toLocalTime().toString();
 
         var s = "Сведения о коллекции:\n";
-        s += " Тип: " + collectionManager.getCollection().getClass().toString() + "\n";
-        s += " Количество элементов: " + collectionManager.getCollection().size() + "\n";
+        s += " Тип: упорядоченное множество Movie (по oscarsCount, name и id)\n";
+        var aggregates = collectionManager.getAggregates();
+        s += " Количество элементов: " + aggregates.getCount() + "\n";
+        if (aggregates.getCount() > 0) {
+            s += " oscarsCount: сумма " + aggregates.getOscarsSum() + ", минимум " + aggregates.getOscarsMin()
+                    + ", максимум " + aggregates.getOscarsMax() + "\n";
+            s += " По жанрам: " + aggregates.getGenreCounts() + "\n";
+            s += " По рейтингам MPAA: " + aggregates.getRatingCounts() + "\n";
+        }
+        s += " Память битовых индексов: " + (collectionManager.enumIndexMemoryBytes() + 1023) / 1024 + " КБ\n";
         s += " Дата последнего сохранения: " + lastSaveTimeString + "\n";
-        s += " Дата последней инициализации: " + lastInitTimeString;
+        s += " Дата последней инициализации: " + lastInitTimeString + "\n";
+        s += " Версия коллекции: " + collectionManager.getVersion() + "\n";
+        s += " Несохраненные изменения: " + (collectionManager.isDirty() ? "есть" : "нет");
         return new ExecutionResponse(s);
     }
 }
\ No newline at end of file
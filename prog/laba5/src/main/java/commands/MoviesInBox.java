@@ -0,0 +1,42 @@
+package commands;
+
+import managers.CollectionManager;
+import utility.Console;
+import utility.ExecutionResponse;
+
+/**
+ * Класс команды для вывода элементов, координаты которых лежат в прямоугольнике.
+ * Проверяются только ячейки пространственного индекса, пересекающие прямоугольник
+ */
+public class MoviesInBox extends Command {
+    private final Console console;
+    private final CollectionManager collectionManager;
+
+    public MoviesInBox(Console console, CollectionManager collectionManager) {
+        super("movies_in_box x1 y1 x2 y2", "вывести элементы, координаты которых лежат в прямоугольнике с углами (x1, y1) и (x2, y2)");
+        this.console = console;
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public ExecutionResponse apply(String[] arguments) {
+        String[] parameters = arguments.length < 2 || arguments[1].isBlank() ? new String[0] : arguments[1].trim().split("\\s+");
+        if (parameters.length != 4) {
+            return new ExecutionResponse(false, "Неправильное количество аргументов!\nИспользование: '" + getName() + "'");
+        }
+        int[] corners = new int[4];
+        try {
+            for (int i = 0; i < 4; i++) corners[i] = Integer.parseInt(parameters[i]);
+        } catch (NumberFormatException e) {
+            return new ExecutionResponse(false, "Координаты должны быть целыми числами!");
+        }
+
+        long[] printed = {0};
+        long count = collectionManager.forEachInBox(corners[0], corners[1], corners[2], corners[3], movie -> {
+            if (printed[0]++ > 0) console.println("");
+            console.println(movie);
+        });
+        if (count == 0) return new ExecutionResponse("Нет подходящих элементов.");
+        return new ExecutionResponse("\nНайдено элементов: " + count);
+    }
+}
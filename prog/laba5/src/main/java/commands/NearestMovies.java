@@ -0,0 +1,50 @@
+package commands;
+
+import managers.CollectionManager;
+import moduls.Movie;
+import utility.Console;
+import utility.ExecutionResponse;
+
+import java.util.List;
+
+/**
+ * Класс команды для вывода k элементов, ближайших к заданной точке.
+ * Поиск идет по пространственному индексу координат
+ */
+public class NearestMovies extends Command {
+    private final Console console;
+    private final CollectionManager collectionManager;
+
+    public NearestMovies(Console console, CollectionManager collectionManager) {
+        super("nearest_movies x y k", "вывести k элементов, координаты которых ближе всего к точке (x, y)");
+        this.console = console;
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public ExecutionResponse apply(String[] arguments) {
+        String[] parameters = arguments.length < 2 || arguments[1].isBlank() ? new String[0] : arguments[1].trim().split("\\s+");
+        if (parameters.length != 3) {
+            return new ExecutionResponse(false, "Неправильное количество аргументов!\nИспользование: '" + getName() + "'");
+        }
+        int x;
+        int y;
+        int k;
+        try {
+            x = Integer.parseInt(parameters[0]);
+            y = Integer.parseInt(parameters[1]);
+            k = Integer.parseInt(parameters[2]);
+        } catch (NumberFormatException e) {
+            return new ExecutionResponse(false, "x, y и k должны быть целыми числами!");
+        }
+        if (k <= 0) return new ExecutionResponse(false, "k должно быть больше 0!");
+
+        List<Movie> nearest = collectionManager.nearestMovies(x, y, k);
+        if (nearest.isEmpty()) return new ExecutionResponse("Коллекция пуста!");
+        for (int i = 0; i < nearest.size(); i++) {
+            if (i > 0) console.println("");
+            console.println(nearest.get(i));
+        }
+        return new ExecutionResponse("\nВыведено элементов: " + nearest.size());
+    }
+}
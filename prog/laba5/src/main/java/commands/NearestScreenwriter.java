@@ -0,0 +1,41 @@
+package commands;
+
+import managers.CollectionManager;
+import moduls.Movie;
+import utility.Console;
+import utility.ExecutionResponse;
+
+/**
+ * Класс команды для вывода сценариста, местоположение которого ближе всего к точке
+ */
+public class NearestScreenwriter extends Command {
+    private final CollectionManager collectionManager;
+
+    public NearestScreenwriter(Console console, CollectionManager collectionManager) {
+        super("nearest_screenwriter x y z", "вывести сценариста, местоположение которого ближе всего к точке (x, y, z)");
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public ExecutionResponse apply(String[] arguments) {
+        String[] parameters = arguments.length < 2 || arguments[1].isBlank() ? new String[0] : arguments[1].trim().split("\\s+");
+        if (parameters.length != 3) {
+            return new ExecutionResponse(false, "Неправильное количество аргументов!\nИспользование: '" + getName() + "'");
+        }
+        double x;
+        long y;
+        long z;
+        try {
+            x = Double.parseDouble(parameters[0]);
+            y = Long.parseLong(parameters[1]);
+            z = Long.parseLong(parameters[2]);
+        } catch (NumberFormatException e) {
+            return new ExecutionResponse(false, "x должен быть числом, y и z - целыми числами!");
+        }
+        if (Double.isNaN(x) || Double.isInfinite(x)) return new ExecutionResponse(false, "x должен быть конечным числом!");
+
+        Movie nearest = collectionManager.nearestScreenwriter(x, y, z);
+        if (nearest == null) return new ExecutionResponse("Нет подходящих элементов.");
+        return new ExecutionResponse(ScreenwritersNear.describe(nearest));
+    }
+}
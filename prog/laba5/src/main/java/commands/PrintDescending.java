@@ -5,35 +5,49 @@ import moduls.Movie;
 import utility.Console;
 import utility.ExecutionResponse;
 
-import java.util.Comparator;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
- * Класс команды для вывода элементов в порядке убывания ID
+ * Класс команды для вывода элементов в порядке убывания ID.
+ * Элементы выводятся в консоль по одному; необязательные limit и offset задают страницу вывода
  */
 public class PrintDescending extends Command {
     private final Console console;
     private final CollectionManager collectionManager;
 
     public PrintDescending(Console console, CollectionManager collectionManager) {
-        super("print_descending", "вывести элементы коллекции в порядке убывания ID");
+        super("print_descending [limit [offset]]", "вывести элементы коллекции в порядке убывания ID");
         this.console = console;
         this.collectionManager = collectionManager;
     }
 
     @Override
     public ExecutionResponse apply(String[] arguments) {
-        if (!arguments[1].isEmpty()) {
+        String[] parameters = arguments.length < 2 || arguments[1].isBlank() ? new String[0] : arguments[1].trim().split("\\s+");
+        if (parameters.length > 2) {
             return new ExecutionResponse(false, "Неправильное количество аргументов!\nИспользование: '" + getName() + "'");
         }
-        
-        List<Movie> sorted = collectionManager.getCollection().stream()
-            .sorted(Comparator.comparingLong(Movie::getId).reversed())
-            .collect(Collectors.toList());
-            
-        if (sorted.isEmpty()) return new ExecutionResponse("Коллекция пуста!");
-        String result = sorted.stream().map(Movie::toString).collect(Collectors.joining("\n\n"));
-        return new ExecutionResponse(result);
+        long limit;
+        long offset;
+        try {
+            limit = parameters.length > 0 ? Long.parseLong(parameters[0]) : Long.MAX_VALUE;
+            offset = parameters.length > 1 ? Long.parseLong(parameters[1]) : 0;
+        } catch (NumberFormatException e) {
+            return new ExecutionResponse(false, "limit и offset должны быть целыми числами!");
+        }
+        if (limit < 0 || offset < 0) return new ExecutionResponse(false, "limit и offset не могут быть отрицательными!");
+
+        if (collectionManager.getAggregates().getCount() == 0) return new ExecutionResponse("Коллекция пуста!");
+        long count = collectionManager.forEachByIdDescending(offset, limit, new Consumer<>() {
+            private boolean first = true;
+
+            @Override
+            public void accept(Movie movie) {
+                if (!first) console.println("");
+                console.println(movie);
+                first = false;
+            }
+        });
+        return new ExecutionResponse("\nВыведено элементов: " + count);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,42 @@
+package commands;
+
+import managers.CollectionManager;
+import query.QueryParser;
+import query.QueryPlan;
+import query.QueryPlanner;
+import utility.Console;
+import utility.ExecutionResponse;
+
+/**
+ * Класс команды для выполнения запроса к коллекции.
+ * Способ выполнения (поиск по id, битовые индексы, отрезок по oscarsCount, порядок по id или полный обход)
+ * выбирает QueryPlanner по оценке стоимости
+ */
+public class Query extends Command {
+    private final Console console;
+    private final CollectionManager collectionManager;
+
+    public Query(Console console, CollectionManager collectionManager) {
+        super("query [where условие {and условие}] [order by поле [asc|desc]] [limit N]", "вывести элементы, удовлетворяющие запросу");
+        this.console = console;
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public ExecutionResponse apply(String[] arguments) {
+        QueryPlan plan;
+        try {
+            plan = QueryPlanner.plan(QueryParser.parse(arguments.length < 2 ? "" : arguments[1]), collectionManager);
+        } catch (QueryParser.QueryException e) {
+            return new ExecutionResponse(false, e.getMessage() + "\nИспользование: '" + getName() + "'");
+        }
+
+        long count = 0;
+        for (var movie : plan.execute(collectionManager)) {
+            if (count++ > 0) console.println("");
+            console.println(movie);
+        }
+        if (count == 0) return new ExecutionResponse("Подходящих элементов нет!");
+        return new ExecutionResponse("\nВыведено элементов: " + count);
+    }
+}
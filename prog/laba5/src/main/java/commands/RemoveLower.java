@@ -6,8 +6,6 @@ import moduls.Movie;
 import utility.Console;
 import utility.ExecutionResponse;
 
-import java.util.Iterator;
-
 /**
  * Класс команды для удаления всех элементов, меньших заданного
  */
@@ -27,17 +25,7 @@ public class RemoveLower extends Command {
             console.println("******** Ввод элемента для сравнения ********");
             Movie compareMovie = AskManager.askMovie(console, collectionManager.getFreeId());
             if (compareMovie == null) return new ExecutionResponse(false, "Отмена...");
-            int removedCount = 0;
-            Iterator<Movie> iterator = collectionManager.getCollection().iterator();
-            while (iterator.hasNext()) {
-                Movie movie = iterator.next();
-                if (movie.compareTo(compareMovie) < 0) {
-                    iterator.remove();
-                    collectionManager.remove(movie.getId());
-                    removedCount++;
-                }
-            }
-            collectionManager.sort();
+            int removedCount = collectionManager.removeLower(compareMovie);
             return new ExecutionResponse("Удалено элементов: " + removedCount);
         } catch (AskManager.AskBreak e) {
             return new ExecutionResponse(false, "Отмена...");
@@ -5,24 +5,34 @@ import utility.Console;
 import utility.ExecutionResponse;
 
 /**
- * Класс команды для сохранения коллекции в файл
+ * Класс команды для сохранения коллекции в файл.
+ * С аргументом background текущая версия коллекции записывается в фоне,
+ * и следующие команды выполняются, не дожидаясь окончания записи;
+ * о неудачном фоновом сохранении сообщается при завершении программы
  */
 public class Save extends Command {
     private final Console console;
     private final CollectionManager collectionManager;
 
     public Save(Console console, CollectionManager collectionManager) {
-        super("save", "сохранить коллекцию в файл");
+        super("save [background]", "сохранить коллекцию в файл (background - в фоне)");
         this.console = console;
         this.collectionManager = collectionManager;
     }
 
     @Override
     public ExecutionResponse apply(String[] arguments) {
+        if (arguments.length > 1 && arguments[1].trim().equals("background")) {
+            long version = collectionManager.getVersion();
+            collectionManager.saveCollectionInBackground();
+            return new ExecutionResponse("Сохранение версии " + version + " поставлено в очередь");
+        }
         if (arguments.length > 1 && !arguments[1].isEmpty()) {
-            return new ExecutionResponse(false, "Неправильное количество аргументов!\nИспользование: 'save'");
+            return new ExecutionResponse(false, "Неправильное количество аргументов!\nИспользование: '" + getName() + "'");
+        }
+        if (!collectionManager.saveCollection()) {
+            return new ExecutionResponse(false, "Коллекция не сохранена: файл не может быть записан, изменения остались в журнале");
         }
-        collectionManager.saveCollection();
         return new ExecutionResponse("Коллекция успешно сохранена!");
     }
 } 
\ No newline at end of file
@@ -0,0 +1,57 @@
+package commands;
+
+import managers.CollectionManager;
+import moduls.Location;
+import moduls.Movie;
+import utility.Console;
+import utility.ExecutionResponse;
+
+/**
+ * Класс команды для вывода сценаристов, местоположение которых не дальше заданного радиуса от точки
+ */
+public class ScreenwritersNear extends Command {
+    private final Console console;
+    private final CollectionManager collectionManager;
+
+    public ScreenwritersNear(Console console, CollectionManager collectionManager) {
+        super("screenwriters_near x y z radius", "вывести сценаристов, местоположение которых не дальше radius от точки (x, y, z)");
+        this.console = console;
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public ExecutionResponse apply(String[] arguments) {
+        String[] parameters = arguments.length < 2 || arguments[1].isBlank() ? new String[0] : arguments[1].trim().split("\\s+");
+        if (parameters.length != 4) {
+            return new ExecutionResponse(false, "Неправильное количество аргументов!\nИспользование: '" + getName() + "'");
+        }
+        double x;
+        long y;
+        long z;
+        double radius;
+        try {
+            x = Double.parseDouble(parameters[0]);
+            y = Long.parseLong(parameters[1]);
+            z = Long.parseLong(parameters[2]);
+            radius = Double.parseDouble(parameters[3]);
+        } catch (NumberFormatException e) {
+            return new ExecutionResponse(false, "x и radius должны быть числами, y и z - целыми числами!");
+        }
+        if (Double.isNaN(x) || Double.isInfinite(x) || !(radius >= 0) || Double.isInfinite(radius)) {
+            return new ExecutionResponse(false, "x должен быть конечным числом, radius - конечным неотрицательным числом!");
+        }
+
+        long count = collectionManager.forEachScreenwriterNear(x, y, z, radius,
+                (movie, distance) -> console.println(describe(movie) + ", расстояние " + String.format("%.3f", distance)));
+        return new ExecutionResponse(count == 0 ? "Нет подходящих элементов." : "Найдено элементов: " + count);
+    }
+
+    /**
+     * Описание фильма и местоположения его сценариста в одну строку
+     */
+    static String describe(Movie movie) {
+        Location location = movie.getScreenwriter().getLocation();
+        return "id=" + movie.getId() + " '" + movie.getName() + "': сценарист " + movie.getScreenwriter().getName()
+                + ", место '" + location.getName() + "' (" + location.getX() + ", " + location.getY() + ", " + location.getZ() + ")";
+    }
+}
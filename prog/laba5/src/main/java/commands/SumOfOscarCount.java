@@ -35,7 +35,7 @@ public class SumOfOscarCount extends Command {
         if (arguments.length > 1 && !arguments[1].isEmpty()) {
             return new ExecutionResponse(false, "Неправильное количество аргументов!\nИспользование: '" + getName() + "'");
         }
-        long sum = collectionManager.getCollection().stream().mapToLong(m -> m.getOscarsCount()).sum();
+        long sum = collectionManager.getAggregates().getOscarsSum();
         return new ExecutionResponse("Сумма oscarsCount: " + sum);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,42 @@
+package commands;
+
+import managers.CollectionManager;
+import utility.Console;
+import utility.ExecutionResponse;
+
+/**
+ * Класс команды для вывода N элементов с наибольшим oscarsCount.
+ * Элементы берутся с конца упорядоченной коллекции, поэтому обходятся только выводимые
+ */
+public class TopOscars extends Command {
+    private final Console console;
+    private final CollectionManager collectionManager;
+
+    public TopOscars(Console console, CollectionManager collectionManager) {
+        super("top_oscars N", "вывести N элементов с наибольшим значением поля oscarsCount");
+        this.console = console;
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public ExecutionResponse apply(String[] arguments) {
+        if (arguments.length < 2 || arguments[1].isBlank()) {
+            return new ExecutionResponse(false, "Не указано N!\nИспользование: '" + getName() + "'");
+        }
+        long limit;
+        try {
+            limit = Long.parseLong(arguments[1].trim());
+        } catch (NumberFormatException e) {
+            return new ExecutionResponse(false, "N должно быть целым числом!");
+        }
+        if (limit < 0) return new ExecutionResponse(false, "N не может быть отрицательным!");
+
+        long[] count = {0};
+        collectionManager.streamTopOscars(limit).forEach(movie -> {
+            if (count[0]++ > 0) console.println("");
+            console.println(movie);
+        });
+        if (count[0] == 0) return new ExecutionResponse("Коллекция пуста!");
+        return new ExecutionResponse("\nВыведено элементов: " + count[0]);
+    }
+}
@@ -42,8 +42,7 @@ public class Update extends Command {
             if (newMovie != null) {
                 List<String> errList = newMovie.validate();
                 if (errList.isEmpty()) {
-                    collectionManager.remove(id);
-                    collectionManager.add(newMovie);
+                    collectionManager.update(newMovie);
                     return new ExecutionResponse("Элемент успешно обновлён!");
                 } else {
                     return new ExecutionResponse(false, String.join("\n", errList));
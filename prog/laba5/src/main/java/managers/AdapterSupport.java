@@ -0,0 +1,71 @@
+package managers;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Общие функции потоковых адаптеров Gson для классов модели
+ */
+final class AdapterSupport {
+    private AdapterSupport() {
+    }
+
+    /**
+     * Строит таблицу констант перечисления по имени, чтобы чтение не создавало строк и исключений
+     *
+     * @param constants константы перечисления
+     * @return таблица имя -> константа
+     */
+    static <E extends Enum<E>> Map<String, E> byName(E[] constants) {
+        Map<String, E> table = new HashMap<>(constants.length * 2);
+        for (E constant : constants) table.put(constant.name(), constant);
+        return table;
+    }
+
+    /**
+     * Читает константу перечисления по имени
+     *
+     * @param in    поток JSON
+     * @param table таблица имя -> константа
+     * @param field имя поля для сообщения об ошибке
+     * @return константа или null, если в JSON записан null
+     * @throws JsonParseException если имя не соответствует ни одной константе
+     */
+    static <E extends Enum<E>> E readEnum(JsonReader in, Map<String, E> table, String field) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String name = in.nextString();
+        E constant = table.get(name);
+        if (constant == null) throw new JsonParseException(field + ": неизвестное значение '" + name + "'");
+        return constant;
+    }
+
+    /**
+     * Читает строку, допуская null
+     */
+    static String readString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    /**
+     * Проверяет условие поля
+     *
+     * @param condition условие
+     * @param message   сообщение об ошибке
+     * @throws JsonParseException если условие не выполнено
+     */
+    static void check(boolean condition, String message) {
+        if (!condition) throw new JsonParseException(message);
+    }
+}
@@ -0,0 +1,273 @@
+package managers;
+
+import moduls.*;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Двоичный формат снимка коллекции.
+ * <p>
+ * Заголовок: сигнатура "MOVB", версия формата, число записей, длина данных и CRC32 данных.
+ * Далее идут записи с префиксом длины; поля хранятся в двоичном виде: перечисления - порядковыми
+ * номерами, даты - номером дня от эпохи, строки - длиной и байтами UTF-8.
+ * Файл читается через FileChannel.map окнами до 1 ГБ, так что размер файла не ограничен 2 ГБ.
+ */
+public class BinarySnapshot {
+    /**
+     * сигнатура формата: "MOVB"
+     */
+    static final int MAGIC = 0x4D4F5642;
+    /**
+     * текущая версия формата
+     */
+    static final int VERSION = 1;
+    /**
+     * размер заголовка: сигнатура, версия, число записей, длина данных, CRC32
+     */
+    static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4;
+
+    private static final int WINDOW_SIZE = 1 << 30;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte ABSENT = -1;
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private BinarySnapshot() {
+    }
+
+    /**
+     * Проверяет, начинается ли файл с сигнатуры двоичного формата
+     *
+     * @param path путь к файлу
+     * @return true, если файл в двоичном формате
+     * @throws IOException при ошибке чтения
+     */
+    public static boolean isBinary(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining()) {
+                if (channel.read(magic) < 0) return false;
+            }
+            return magic.flip().getInt() == MAGIC;
+        }
+    }
+
+    /**
+     * Записывает коллекцию в двоичном формате
+     *
+     * @param path       путь к файлу
+     * @param collection коллекция
+     * @throws IOException при ошибке записи
+     */
+    public static void write(Path path, Collection<Movie> collection) throws IOException {
+        try (var channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            var crc = new CRC32();
+            ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+            ByteBuffer record = ByteBuffer.allocate(256);
+            long count = 0;
+            long payload = 0;
+            channel.position(HEADER_SIZE);
+            for (Movie movie : collection) {
+                record.clear();
+                record.putInt(0);
+                record = encode(record, movie);
+                record.putInt(0, record.position() - 4);
+                record.flip();
+                crc.update(record.duplicate());
+                payload += record.remaining();
+                if (out.remaining() < record.remaining()) {
+                    drain(channel, out);
+                    if (out.capacity() < record.remaining()) {
+                        while (record.hasRemaining()) channel.write(record);
+                        count++;
+                        continue;
+                    }
+                }
+                out.put(record);
+                count++;
+            }
+            drain(channel, out);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC).putInt(VERSION).putLong(count).putLong(payload).putInt((int) crc.getValue())
+                    .flip();
+            while (header.hasRemaining()) channel.write(header, HEADER_SIZE - header.remaining());
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Читает коллекцию в двоичном формате, передавая записи получателю по одной.
+     * Контрольная сумма проверяется до разбора, поэтому поврежденный файл не передает получателю ни одной записи.
+     *
+     * @param path     путь к файлу
+     * @param consumer получатель элементов; вернув false, он прерывает чтение
+     * @return true, если файл прочитан полностью и все элементы приняты
+     * @throws IOException при ошибке чтения или повреждении файла
+     */
+    public static boolean read(Path path, Predicate<Movie> consumer) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) throw new IOException("файл короче заголовка");
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) throw new IOException("неверная сигнатура двоичного формата");
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("неподдерживаемая версия формата: " + version);
+            long count = header.getLong();
+            long payload = header.getLong();
+            int checksum = header.getInt();
+            if (payload != fileSize - HEADER_SIZE) throw new IOException("длина данных не совпадает с размером файла");
+
+            var crc = new CRC32();
+            for (long position = HEADER_SIZE; position < fileSize; position += WINDOW_SIZE) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, fileSize - position)));
+            }
+            if ((int) crc.getValue() != checksum) throw new IOException("контрольная сумма не совпадает");
+
+            long windowStart = HEADER_SIZE;
+            MappedByteBuffer window = map(channel, windowStart, fileSize);
+            for (long i = 0; i < count; i++) {
+                if (window.remaining() < 4 || window.remaining() < 4 + window.getInt(window.position())) {
+                    windowStart += window.position();
+                    window = map(channel, windowStart, fileSize);
+                    if (window.remaining() < 4) throw new IOException("неожиданный конец файла");
+                }
+                int length = window.getInt();
+                if (length < 0 || length > window.remaining()) throw new IOException("некорректная длина записи " + i);
+                int end = window.position() + length;
+                Movie movie;
+                try {
+                    movie = decode(window);
+                } catch (BufferUnderflowException | IndexOutOfBoundsException exception) {
+                    throw new IOException("запись " + i + " повреждена");
+                } catch (IOException exception) {
+                    throw new IOException("запись " + i + " некорректна: " + exception.getMessage());
+                }
+                if (window.position() != end) throw new IOException("запись " + i + " повреждена");
+                if (!consumer.test(movie)) return false;
+            }
+            return true;
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long fileSize) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, fileSize - position));
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) channel.write(out);
+        out.clear();
+    }
+
+    /**
+     * Кодирует фильм в буфер, при необходимости увеличивая его
+     *
+     * @return буфер с записанным фильмом (может быть новым)
+     */
+    private static ByteBuffer encode(ByteBuffer buffer, Movie movie) {
+        buffer = ensure(buffer, 8);
+        buffer.putLong(movie.getId());
+        buffer = putString(buffer, movie.getName());
+        Coordinates coordinates = movie.getCoordinates();
+        buffer = ensure(buffer, 1 + 4 + 4 + 8 + 8 + 1 + 1 + 1);
+        if (coordinates == null) {
+            buffer.put(ABSENT);
+        } else {
+            buffer.put((byte) 1).putInt(coordinates.getX()).putInt(coordinates.getY());
+        }
+        LocalDate creationDate = movie.getCreationDate();
+        buffer.putLong(creationDate == null ? NO_DATE : creationDate.toEpochDay());
+        buffer.putLong(movie.getOscarsCount());
+        buffer.put(ordinal(movie.getGenre()));
+        buffer.put(ordinal(movie.getMpaaRating()));
+        Person screenwriter = movie.getScreenwriter();
+        if (screenwriter == null) {
+            buffer.put(ABSENT);
+            return buffer;
+        }
+        buffer.put((byte) 1);
+        buffer = putString(buffer, screenwriter.getName());
+        buffer = ensure(buffer, 4 + 1 + 1 + 8 + 8 + 1 + 8);
+        buffer.putFloat(screenwriter.getHeight());
+        buffer.put(ordinal(screenwriter.getEyeColor()));
+        Location location = screenwriter.getLocation();
+        if (location == null) {
+            buffer.put(ABSENT);
+            return buffer;
+        }
+        // байт присутствия z остался от первой версии формата: z всегда задан (см. Location.validate)
+        buffer.put((byte) 1).putDouble(location.getX()).putLong(location.getY()).put((byte) 1).putLong(location.getZ());
+        return putString(buffer, location.getName());
+    }
+
+    private static Movie decode(ByteBuffer buffer) throws IOException {
+        long id = buffer.getLong();
+        String name = getString(buffer);
+        Coordinates coordinates = buffer.get() == ABSENT ? null : new Coordinates(buffer.getInt(), buffer.getInt());
+        long epochDay = buffer.getLong();
+        LocalDate creationDate = epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+        long oscarsCount = buffer.getLong();
+        MovieGenre genre = constant(MovieGenre.values(), buffer.get());
+        MpaaRating mpaaRating = constant(MpaaRating.values(), buffer.get());
+        Person screenwriter = null;
+        if (buffer.get() != ABSENT) {
+            String screenwriterName = getString(buffer);
+            float height = buffer.getFloat();
+            Color eyeColor = constant(Color.values(), buffer.get());
+            Location location = null;
+            if (buffer.get() != ABSENT) {
+                double x = buffer.getDouble();
+                long y = buffer.getLong();
+                // файлы, записанные до того, как z стал обязательным, могут содержать местоположение без z;
+                // такой фильм нарушает Location.validate и не может попасть в индекс местоположений
+                if (buffer.get() == ABSENT) throw new IOException("Location.z отсутствует");
+                location = new Location(x, y, buffer.getLong(), getString(buffer));
+            }
+            screenwriter = new Person(screenwriterName, height, eyeColor, location);
+        }
+        return new Movie(id, name, coordinates, creationDate, oscarsCount, genre, mpaaRating, screenwriter);
+    }
+
+    private static byte ordinal(Enum<?> value) {
+        return value == null ? ABSENT : (byte) value.ordinal();
+    }
+
+    private static <T extends Enum<T>> T constant(T[] values, byte ordinal) {
+        if (ordinal == ABSENT) return null;
+        if (ordinal < 0 || ordinal >= values.length) throw new IndexOutOfBoundsException("ordinal " + ordinal);
+        return values[ordinal];
+    }
+
+    private static ByteBuffer putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            return ensure(buffer, 4).putInt(-1);
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return ensure(buffer, 4 + bytes.length).putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int needed) {
+        if (buffer.remaining() >= needed) return buffer;
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+        return grown.put(buffer.flip());
+    }
+}
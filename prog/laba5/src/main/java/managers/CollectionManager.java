@@ -1,9 +1,31 @@
 package managers;
 
+import moduls.Color;
+import moduls.Location;
 import moduls.Movie;
+import moduls.MovieGenre;
+import moduls.MpaaRating;
+import moduls.Person;
+import utility.CollectionAggregates;
+import utility.EnumBitmapIndex;
+import utility.IdAllocator;
+import utility.KdTree;
+import utility.LongMovieMap;
+import utility.PersistentMovieTree;
+import utility.QueryExecutor;
+import utility.SpatialGrid;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Класс менеджера коллекции
@@ -12,17 +34,41 @@ import java.util.*;
  */
 public class CollectionManager {
     /**
-     * переменная для выдачи следующего id
+     * распределитель свободных id
      */
-    private long nextId = 1;
+    private final IdAllocator idAllocator = new IdAllocator();
     /**
      * словарь для хранения элементов коллекции по id
      */
-    private Map<Long, Movie> groups = new HashMap();
+    private LongMovieMap groups = new LongMovieMap();
     /**
-     * хранимая коллекция
+     * текущая версия коллекции, упорядоченной по Movie.compareTo (oscarsCount, name, id).
+     * Каждое изменение строит новое неизменяемое AVL-дерево, которое делит со старым все нетронутые поддеревья,
+     * и публикует его вместе с увеличенным номером версии одной volatile-записью.
+     * Читатель, взявший версию, обходит ее целиком и не видит недоделанных remove_lower или clear
      */
-    private LinkedHashSet<Movie> collection = new LinkedHashSet<>();
+    private volatile Version head = new Version(0, PersistentMovieTree.EMPTY);
+    /**
+     * агрегаты коллекции, обновляемые при каждом изменении
+     */
+    private final CollectionAggregates aggregates = new CollectionAggregates();
+    /**
+     * индекс по сценаристам в порядке Person.compareTo (рост, имя, цвет глаз).
+     * Фильмы без сценариста в индекс не попадают
+     */
+    private TreeMap<Person, TreeSet<Movie>> screenwriters = new TreeMap<>();
+    /**
+     * битовые индексы по жанру, рейтингу MPAA и цвету глаз сценариста
+     */
+    private EnumBitmapIndex enumIndex = new EnumBitmapIndex();
+    /**
+     * пространственный индекс по координатам
+     */
+    private SpatialGrid spatialIndex = new SpatialGrid();
+    /**
+     * k-d дерево по местоположениям сценаристов (x, y, z)
+     */
+    private KdTree locationIndex = newLocationIndex();
     /**
      * Время последней инициализации менеджера
      */
@@ -30,11 +76,42 @@ public class CollectionManager {
     /**
      * вреся последнего сохранения коллекции
      */
-    private LocalDateTime lastSaveTime;
+    private volatile LocalDateTime lastSaveTime;
     /**
      * файловый менеджер
      */
     private final DumpManager dumpManager;
+    /**
+     * журнал изменений (может быть null)
+     */
+    private final JournalManager journalManager;
+    /**
+     * версия коллекции, записанная в файл последним сохранением
+     */
+    private volatile long savedVersion;
+    /**
+     * поток фонового сохранения, создается при первом сохранении
+     */
+    private ExecutorService saver;
+    /**
+     * последнее запущенное сохранение
+     */
+    private CompletableFuture<Boolean> lastSave = CompletableFuture.completedFuture(true);
+    private final Object saveLock = new Object();
+    /**
+     * исполнитель запросов, обходящих всю коллекцию
+     */
+    private volatile QueryExecutor queryExecutor = new QueryExecutor();
+
+    /**
+     * Опубликованная версия коллекции: номер и неизменяемое дерево элементов
+     */
+    private record Version(long number, PersistentMovieTree movies) {
+    }
+    /**
+     * true, пока журнал воспроизводится и изменения не нужно записывать повторно
+     */
+    private boolean replaying;
 
     /**
      * Конструктор
@@ -43,9 +120,20 @@ public class CollectionManager {
      */
 
     public CollectionManager(DumpManager dumpManager) {
+        this(dumpManager, null);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param dumpManager    файловый менеджер
+     * @param journalManager журнал изменений
+     */
+    public CollectionManager(DumpManager dumpManager, JournalManager journalManager) {
         this.lastInitTime = null;
         this.lastSaveTime = null;
         this.dumpManager = dumpManager;
+        this.journalManager = journalManager;
     }
 
     /**
@@ -63,11 +151,81 @@ public class CollectionManager {
     }
 
     /**
-     * Функция сохранения коллекции в файл
+     * @return true, если в коллекции есть изменения, не сохраненные в файл
+     */
+    public boolean isDirty() {
+        return getVersion() != savedVersion;
+    }
+
+    /**
+     * Функция сохранения коллекции в файл.
+     * Дожидается окончания записи; коллекцию при этом можно изменять из других потоков
+     *
+     * @return true, если версия записана в файл
+     */
+    public boolean saveCollection() {
+        return saveCollectionInBackground().join();
+    }
+
+    /**
+     * Функция сохранения коллекции в фоне.
+     * Текущая версия фиксируется сразу и записывается в файл отдельным потоком, поэтому изменения,
+     * сделанные во время записи, ее не ждут и в файл не попадают, а остаются в журнале.
+     * Сохранения выполняются по очереди в порядке вызова
+     *
+     * @return завершается с true, если версия записана в файл
+     */
+    public CompletableFuture<Boolean> saveCollectionInBackground() {
+        synchronized (saveLock) {
+            // Позиция журнала берется до версии: каждая запись до нее уже опубликована и попадет в файл,
+            // а записи после нее останутся в журнале, даже если их изменения тоже попали в версию
+            long mark = journalManager == null ? 0 : journalManager.mark();
+            CollectionSnapshot snapshot = snapshot();
+            if (saver == null) {
+                saver = Executors.newSingleThreadExecutor(task -> {
+                    var thread = new Thread(task, "collection-saver");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            lastSave = CompletableFuture.supplyAsync(() -> write(snapshot, mark), saver);
+            return lastSave;
+        }
+    }
+
+    /**
+     * Ожидает окончания всех запущенных сохранений
+     *
+     * @return true, если последнее запущенное сохранение записало версию в файл или сохранений не было
+     */
+    public boolean awaitSave() {
+        CompletableFuture<Boolean> pending;
+        synchronized (saveLock) {
+            pending = lastSave;
+        }
+        return pending.join();
+    }
+
+    /**
+     * Функция отказа от несохраненных изменений при выходе без сохранения.
+     * Дожидается запущенных сохранений и удаляет из журнала все оставшиеся записи,
+     * поэтому следующий запуск загрузит коллекцию в состоянии последнего сохранения
+     */
+    public void discardUnsavedChanges() {
+        awaitSave();
+        if (journalManager != null) journalManager.discardUpTo(journalManager.mark());
+    }
+
+    /**
+     * Записывает версию коллекции в файл и удаляет из журнала вошедшие в нее записи.
+     * Журнал сокращается только после того, как новый файл зафиксирован на диске и заменил старый
      */
-    public void saveCollection() {
-        dumpManager.writeCollection(collection);
+    private boolean write(CollectionSnapshot snapshot, long mark) {
+        if (!dumpManager.writeCollection(snapshot.getMovies())) return false;
         lastSaveTime = LocalDateTime.now();
+        savedVersion = snapshot.getVersion();
+        if (journalManager != null) journalManager.discardUpTo(mark);
+        return true;
     }
 
     /**
@@ -76,21 +234,97 @@ public class CollectionManager {
      * @return true, если загрузка прошла успешно
      */
     public boolean loadCollection() {
-        groups.clear();
-        dumpManager.readCollection(collection);
+        awaitSave();
+        Movie[] movies;
+        boolean sorted;
+        if (dumpManager.isParallelLoadable()) {
+            movies = dumpManager.readCollectionParallel();
+            sorted = true;
+        } else {
+            var read = new ArrayList<Movie>();
+            var seen = new LongMovieMap();
+            boolean loaded = dumpManager.readCollection(e -> {
+                if (e.getId() < IdAllocator.MIN_ID || seen.containsKey(e.getId())) return false;
+                seen.put(e.getId(), e);
+                read.add(e);
+                return true;
+            });
+            movies = loaded ? read.toArray(new Movie[0]) : null;
+            sorted = false;
+        }
         lastInitTime = LocalDateTime.now();
-        for (Movie e : collection)
-            if (getById(e.getId()) != null) {
-                collection.clear();
+        boolean loaded = movies != null && replaceAll(movies, sorted);
+        if (!loaded) replaceAll(new Movie[0], true);
+        savedVersion = getVersion();
+        replayJournal();
+        return loaded;
+    }
+
+    /**
+     * Заменяет содержимое коллекции загруженными элементами.
+     * Дерево строится из отсортированного массива за линейное время, без вставок по одному
+     *
+     * @param movies элементы с уникальными id
+     * @param sorted true, если элементы уже в естественном порядке
+     * @return false, если среди элементов есть некорректный или повторяющийся id (коллекция остается пустой)
+     */
+    protected boolean replaceAll(Movie[] movies, boolean sorted) {
+        dropAll(true);
+        groups.ensureCapacity(movies.length);
+        for (Movie e : movies) {
+            if (e.getId() < IdAllocator.MIN_ID || groups.containsKey(e.getId())) {
+                dropAll(true);
                 return false;
-            } else {
-                if (e.getId() > nextId) nextId = e.getId();
-                groups.put(e.getId(), e);
             }
-        sort();
+            groups.put(e.getId(), e);
+            index(e);
+        }
+        if (!sorted) Arrays.sort(movies);
+        publish(PersistentMovieTree.fromSorted(movies));
+        rebuildIdAllocator();
         return true;
     }
 
+    /**
+     * Публикует новую версию коллекции
+     *
+     * @param movies элементы новой версии
+     */
+    private void publish(PersistentMovieTree movies) {
+        head = new Version(head.number() + 1, movies);
+    }
+
+    /**
+     * Воспроизводит журнал изменений поверх загруженного снимка коллекции
+     */
+    private void replayJournal() {
+        if (journalManager == null) return;
+        replaying = true;
+        try {
+            journalManager.replay(this);
+        } finally {
+            replaying = false;
+        }
+    }
+
+    /**
+     * @return true, если изменение нужно записать в журнал
+     */
+    protected boolean isJournaled() {
+        return journalManager != null && !replaying;
+    }
+
+    /**
+     * Перестраивает распределитель id по текущему содержимому словаря за один проход
+     */
+    private void rebuildIdAllocator() {
+        long[] ids = new long[groups.size()];
+        int[] i = {0};
+        groups.forEachValue(e -> ids[i[0]++] = e.getId());
+        Arrays.sort(ids);
+        idAllocator.rebuild(ids);
+    }
+
     /**
      * Функция для проверки наличия объекта в коллекции
      *
@@ -104,10 +338,278 @@ public class CollectionManager {
     /**
      * Функция получения коллекции из менеджера
      *
-     * @return возвращает хранимую в менеджере коллекцию
+     * @return возвращает текущую версию коллекции; она неизменяема и не меняется при последующих изменениях
      */
-    public LinkedHashSet<Movie> getCollection() {
-        return this.collection;
+    public Set<Movie> getCollection() {
+        return head.movies();
+    }
+
+    /**
+     * Функция фиксации текущей версии коллекции.
+     * Версия берется одним чтением без блокировок, и ее можно обходить сколько угодно долго
+     *
+     * @return текущая версия коллекции
+     */
+    public CollectionSnapshot snapshot() {
+        Version version = head;
+        return new CollectionSnapshot(version.number(), version.movies());
+    }
+
+    /**
+     * @return номер текущей версии коллекции; увеличивается при каждом изменении
+     */
+    public long getVersion() {
+        return head.number();
+    }
+
+    /**
+     * Добавляет элемент во вторичные индексы и агрегаты
+     */
+    private void index(Movie e) {
+        aggregates.add(e);
+        groups.setTag(e.getId(), enumIndex.add(e));
+        spatialIndex.add(e);
+        Location location = screenwriterLocation(e);
+        if (location != null) locationIndex.add(e);
+        if (e.getScreenwriter() != null) {
+            screenwriters.computeIfAbsent(e.getScreenwriter(), person -> new TreeSet<>()).add(e);
+        }
+    }
+
+    /**
+     * Удаляет элемент из вторичных индексов и агрегатов
+     */
+    private void unindex(Movie e) {
+        aggregates.remove(e);
+        enumIndex.remove(groups.getTag(e.getId()), e);
+        spatialIndex.remove(e);
+        Location location = screenwriterLocation(e);
+        if (location != null) locationIndex.remove(e);
+        if (e.getScreenwriter() != null) {
+            TreeSet<Movie> movies = screenwriters.get(e.getScreenwriter());
+            if (movies != null && movies.remove(e) && movies.isEmpty()) screenwriters.remove(e.getScreenwriter());
+        }
+    }
+
+    /**
+     * Функция обхода элементов, сценарист которых меньше заданного.
+     * Элементы берутся из начала индекса сценаристов, поэтому обход стоит O(log n + k)
+     *
+     * @param bound  сценарист для сравнения
+     * @param action действие над каждым подходящим элементом
+     * @return количество подходящих элементов
+     */
+    public int forEachWithScreenwriterLessThan(Person bound, Consumer<Movie> action) {
+        int count = 0;
+        for (TreeSet<Movie> movies : screenwriters.headMap(bound, false).values()) {
+            for (Movie movie : movies) {
+                action.accept(movie);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Функция обхода элементов в порядке убывания id.
+     * Порядок берется из распределителя id, а элементы - из словаря по id, так что сортировка не нужна
+     * и обходятся только выводимые элементы
+     *
+     * @param offset сколько элементов с наибольшими id пропустить
+     * @param limit  наибольшее количество обходимых элементов
+     * @param action действие над каждым элементом
+     * @return количество обойденных элементов
+     */
+    public long forEachByIdDescending(long offset, long limit, Consumer<Movie> action) {
+        if (limit <= 0) return 0;
+        long[] count = {0};
+        idAllocator.forEachUsedDescending(offset, id -> {
+            action.accept(groups.get(id));
+            return ++count[0] < limit;
+        });
+        return count[0];
+    }
+
+    /**
+     * Функция получения агрегатов коллекции.
+     * При запуске с -ea (режим отладки) агрегаты сверяются с пересчитанными с нуля
+     *
+     * @return агрегаты коллекции
+     */
+    public CollectionAggregates getAggregates() {
+        assert aggregates.matches(CollectionAggregates.of(head.movies())) : "Агрегаты коллекции рассогласованы";
+        return aggregates;
+    }
+
+    /**
+     * @return агрегаты коллекции без проверки режима отладки
+     */
+    protected CollectionAggregates aggregates() {
+        return aggregates;
+    }
+
+    /**
+     * Функция выполнения нескольких запросов к коллекции как одного чтения.
+     * Здесь запрос просто выполняется; ConcurrentCollectionManager выполняет его под блокировкой чтения,
+     * поэтому запросы внутри него видят одно и то же состояние коллекции
+     *
+     * @param query запрос
+     * @return результат запроса
+     */
+    public <T> T read(Supplier<T> query) {
+        return query.get();
+    }
+
+    /**
+     * Функция получения элементов с oscarsCount в диапазоне [from, to].
+     * oscarsCount - первый ключ порядка коллекции, поэтому диапазон - это отрезок дерева:
+     * поиск его начала стоит O(log n), а поток элементов ленивый и читает версию, взятую при вызове
+     *
+     * @param from нижняя граница (включительно)
+     * @param to   верхняя граница (включительно)
+     * @return поток элементов в естественном порядке
+     */
+    public Stream<Movie> streamOscarsBetween(long from, long to) {
+        if (from > to) return Stream.empty();
+        return stream(head.movies().iteratorFrom(lowestWithOscars(from)))
+                .takeWhile(movie -> movie.getOscarsCount() <= to);
+    }
+
+    /**
+     * Функция получения элементов с наибольшим oscarsCount
+     *
+     * @param limit наибольшее количество элементов
+     * @return ленивый поток элементов в порядке убывания
+     */
+    public Stream<Movie> streamTopOscars(long limit) {
+        return stream(head.movies().descendingIterator()).limit(limit);
+    }
+
+    private static Stream<Movie> stream(Iterator<Movie> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+
+    /**
+     * Граница диапазона: фильм, который меньше всех фильмов с заданным oscarsCount
+     * (пустое имя и наименьший id) и больше всех фильмов с меньшим oscarsCount
+     */
+    private static Movie lowestWithOscars(long oscarsCount) {
+        return new Movie(Long.MIN_VALUE, "", null, null, oscarsCount, null, null, null);
+    }
+
+    /**
+     * Функция настройки параллельного выполнения запросов, обходящих всю коллекцию
+     *
+     * @param queryExecutor исполнитель запросов
+     */
+    public void setQueryExecutor(QueryExecutor queryExecutor) {
+        this.queryExecutor = queryExecutor;
+    }
+
+    /**
+     * Функция отбора элементов по условию полным обходом текущей версии.
+     * Большие версии обходятся параллельно по отрезкам (см. QueryExecutor)
+     *
+     * @param predicate условие
+     * @return подходящие элементы в естественном порядке
+     */
+    public List<Movie> filter(Predicate<Movie> predicate) {
+        return queryExecutor.filter(head.movies(), predicate);
+    }
+
+    /**
+     * Функция поиска элементов, ближайших к точке
+     *
+     * @param x координата x точки
+     * @param y координата y точки
+     * @param k количество элементов
+     * @return элементы в порядке возрастания расстояния
+     */
+    public List<Movie> nearestMovies(int x, int y, int k) {
+        return spatialIndex.nearest(x, y, k);
+    }
+
+    /**
+     * Функция обхода элементов с координатами в прямоугольнике [x1, x2] x [y1, y2]
+     *
+     * @param action действие над элементом
+     * @return количество элементов в прямоугольнике
+     */
+    public long forEachInBox(int x1, int y1, int x2, int y2, Consumer<Movie> action) {
+        return spatialIndex.forEachInBox(x1, y1, x2, y2, action);
+    }
+
+    /**
+     * Функция обхода элементов, местоположение сценариста которых не дальше radius от точки
+     *
+     * @param x      координата x точки
+     * @param y      координата y точки
+     * @param z      координата z точки
+     * @param radius радиус
+     * @param action действие над элементом и расстоянием до него
+     * @return количество найденных элементов
+     */
+    public long forEachScreenwriterNear(double x, long y, long z, double radius, KdTree.DistanceConsumer action) {
+        return locationIndex.forEachWithin(new double[]{x, y, z}, radius, action);
+    }
+
+    /**
+     * Функция поиска элемента с ближайшим к точке местоположением сценариста
+     *
+     * @return ближайший элемент или null, если подходящих местоположений нет
+     */
+    public Movie nearestScreenwriter(double x, long y, long z) {
+        List<Movie> nearest = locationIndex.nearest(new double[]{x, y, z}, 1);
+        return nearest.isEmpty() ? null : nearest.get(0);
+    }
+
+    private static Location screenwriterLocation(Movie e) {
+        return e.getScreenwriter() == null ? null : e.getScreenwriter().getLocation();
+    }
+
+    private static KdTree newLocationIndex() {
+        return new KdTree(3, e -> {
+            Location location = screenwriterLocation(e);
+            return new double[]{location.getX(), location.getY(), location.getZ()};
+        });
+    }
+
+    /**
+     * Функция обхода элементов с заданными жанрами, рейтингами и цветами глаз сценариста
+     * по битовым индексам, без обхода коллекции. null вместо множества означает любое значение
+     *
+     * @param action действие над каждым подходящим элементом
+     * @return количество подходящих элементов
+     */
+    public int forEachMatching(Set<MovieGenre> genres, Set<MpaaRating> ratings, Set<Color> eyeColors, Consumer<Movie> action) {
+        BitSet selection = enumIndex.select(genres, ratings, eyeColors);
+        enumIndex.forEach(selection, action);
+        return selection.cardinality();
+    }
+
+    /**
+     * Функция подсчета элементов с заданными жанрами, рейтингами и цветами глаз сценариста.
+     * null вместо множества означает любое значение
+     *
+     * @return количество подходящих элементов
+     */
+    public int countMatching(Set<MovieGenre> genres, Set<MpaaRating> ratings, Set<Color> eyeColors) {
+        return enumIndex.select(genres, ratings, eyeColors).cardinality();
+    }
+
+    /**
+     * @return количество элементов с каждым цветом глаз сценариста
+     */
+    public Map<Color, Integer> countByEyeColor() {
+        return enumIndex.countByEyeColor();
+    }
+
+    /**
+     * @return память, занимаемая битовыми индексами, в байтах
+     */
+    public long enumIndexMemoryBytes() {
+        return enumIndex.memoryBytes();
     }
 
     /**
@@ -116,10 +618,7 @@ public class CollectionManager {
      * @return возвращает свобожный id
      */
     public Long getFreeId() {
-        while (getById(nextId) != null) {
-            if (++nextId < 0) nextId = 1;
-        }
-        return nextId;
+        return idAllocator.lowestFree();
     }
 
     /**
@@ -128,7 +627,7 @@ public class CollectionManager {
      * @param id уникальный номер объекта
      * @return возвращает объект, хранимый в коллекции
      */
-    public Movie getById(Long id) {
+    public Movie getById(long id) {
         return groups.get(id);
     }
 
@@ -139,10 +638,29 @@ public class CollectionManager {
      * @return true, если объект успешно добавлен
      */
     public boolean add(Movie e) {
-        if (isContain(e)) return false;
+        if (e.getId() < IdAllocator.MIN_ID || groups.containsKey(e.getId())) return false;
+        idAllocator.reserve(e.getId());
+        groups.put(e.getId(), e);
+        publish(head.movies().with(e));
+        index(e);
+        if (isJournaled()) journalManager.logAdd(e);
+        return true;
+    }
+
+    /**
+     * Функция замены элемента коллекции элементом с тем же id
+     *
+     * @param e новое значение элемента
+     * @return true, если элемент с таким id найден и заменен
+     */
+    public boolean update(Movie e) {
+        Movie old = groups.get(e.getId());
+        if (old == null) return false;
+        unindex(old);
         groups.put(e.getId(), e);
-        collection.add(e);
-        sort();
+        publish(head.movies().without(old).with(e));
+        index(e);
+        if (isJournaled()) journalManager.logUpdate(e);
         return true;
     }
 
@@ -153,36 +671,98 @@ public class CollectionManager {
      * @return true, если элемент успешно удален
      */
     public boolean remove(long id) {
-        Movie element = getById(id);
+        Movie element = groups.get(id);
         if (element == null) return false;
+        publish(head.movies().without(element));
+        unindex(element);
         groups.remove(element.getId());
-        collection.remove(element);
-        sort();
+        idAllocator.release(element.getId());
+        if (isJournaled()) journalManager.logRemove(id);
         return true;
     }
 
+    /**
+     * Функция удаления всех элементов, меньших заданного.
+     * Удаляемые элементы образуют начало упорядоченной коллекции, поэтому обходится только оно:
+     * k удаляемых элементов убираются из индексов, словаря id и распределителя за один проход,
+     * а новая версия дерева отрезается от старой за O(log n) и публикуется один раз.
+     *
+     * @param bound элемент для сравнения
+     * @return количество удаленных элементов
+     */
+    public int removeLower(Movie bound) {
+        return removeLower(bound, id -> {
+        });
+    }
+
+    /**
+     * Функция удаления всех элементов, меньших заданного, с передачей id удаленных элементов
+     *
+     * @param bound     элемент для сравнения
+     * @param onRemoved получатель id каждого удаленного элемента
+     * @return количество удаленных элементов
+     */
+    protected int removeLower(Movie bound, LongConsumer onRemoved) {
+        int removed = 0;
+        PersistentMovieTree movies = head.movies();
+        Iterator<Movie> iterator = movies.iterator();
+        while (iterator.hasNext()) {
+            Movie element = iterator.next();
+            if (element.compareTo(bound) >= 0) break;
+            unindex(element);
+            groups.remove(element.getId());
+            idAllocator.release(element.getId());
+            onRemoved.accept(element.getId());
+            removed++;
+        }
+        if (removed == 0) return 0;
+        publish(movies.tailFrom(bound));
+        if (isJournaled()) journalManager.logRemoveLower(bound);
+        return removed;
+    }
+
+    /**
+     * Функция очистки коллекции.
+     * Словарь id заменяется новым пустым, а публикуется пустая версия за O(1); старые структуры
+     * достаются сборщику мусора, когда их перестанут читать
+     */
+    public void clear() {
+        dropAll(false);
+        if (isJournaled()) journalManager.logClear();
+    }
+
+    /**
+     * Удаляет все элементы из коллекции и всех ее индексов
+     *
+     * @param keepCapacity true - очистить словарь id на месте, false - заменить его новым
+     */
+    private void dropAll(boolean keepCapacity) {
+        if (keepCapacity) groups.clear();
+        else groups = new LongMovieMap();
+        publish(PersistentMovieTree.EMPTY);
+        aggregates.reset();
+        screenwriters = new TreeMap<>();
+        enumIndex = new EnumBitmapIndex();
+        spatialIndex = new SpatialGrid();
+        locationIndex = newLocationIndex();
+        idAllocator.reset();
+    }
+
     /**
      * Функция для получения первого элемента в коллекции
      * @return возвращает первый элемент коллекци
      */
     public Movie getFirst() {
-        Iterator<Movie> iterator = collection.iterator();
-        if (iterator.hasNext()) return iterator.next();
-        return null;
+        return head.movies().first();
     }
 
     /**
-     * Функция сортировки коллекции
+     * Функция для получения последнего (наибольшего) элемента в коллекции.
+     * Крайние элементы дерева находятся за O(log n) и всегда соответствуют текущему содержимому
+     * @return возвращает последний элемент коллекции или null, если она пуста
      */
-    public void sort() {
-        int length = collection.size();
-        Movie[] array = new Movie[length];
-        Iterator<Movie> iterator = collection.iterator();
-        for (int i = 0; i < length; i++) {
-            array[i] = iterator.next();
-        }
-        Arrays.sort(array);
-        collection = new LinkedHashSet<>(Arrays.asList(array));
+    public Movie getLast() {
+        return head.movies().last();
     }
 
     /**
@@ -190,12 +770,12 @@ public class CollectionManager {
      */
     @Override
     public String toString() {
-        if (collection.isEmpty()) return "Коллекция пуста!";
+        PersistentMovieTree movies = head.movies();
+        if (movies.isEmpty()) return "Коллекция пуста!";
 
-        StringBuilder info = new StringBuilder();
-        for (Movie element : collection) {
-            info.append(element + "\n\n");
-        }
+        // Элементы большой коллекции переводятся в строки параллельно по отрезкам, отрезки склеиваются по порядку
+        StringBuilder info = queryExecutor.collect(movies, StringBuilder::new,
+                (chunk, element) -> chunk.append(element).append("\n\n"), StringBuilder::append);
         return info.toString().trim();
     }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package managers;
+
+import moduls.Movie;
+
+import java.util.Set;
+
+/**
+ * Зафиксированная версия коллекции.
+ * Номер версии увеличивается при каждом изменении коллекции, а дерево версии неизменяемо,
+ * поэтому снимок можно читать и сохранять сколько угодно долго, пока коллекция изменяется дальше
+ */
+public final class CollectionSnapshot {
+    private final long version;
+    private final Set<Movie> movies;
+
+    CollectionSnapshot(long version, Set<Movie> movies) {
+        this.version = version;
+        this.movies = movies;
+    }
+
+    /**
+     * @return номер версии коллекции
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return неизменяемые элементы версии в естественном порядке
+     */
+    public Set<Movie> getMovies() {
+        return movies;
+    }
+
+    /**
+     * @return количество элементов версии
+     */
+    public int size() {
+        return movies.size();
+    }
+}
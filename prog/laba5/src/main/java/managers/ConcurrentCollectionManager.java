@@ -0,0 +1,219 @@
+package managers;
+
+import moduls.Color;
+import moduls.Movie;
+import moduls.MovieGenre;
+import moduls.MpaaRating;
+import moduls.Person;
+import utility.CollectionAggregates;
+import utility.KdTree;
+
+import java.util.*;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Потокобезопасный менеджер коллекции.
+ * <p>
+ * Изменения выполняются под блокировкой записи StampedLock и поэтому упорядочены между собой.
+ * getById и агрегаты читаются оптимистично, без блокировки: результат принимается, если за время
+ * чтения не было записи, иначе чтение повторяется под блокировкой чтения. Запросы, обходящие деревья
+ * (диапазоны, поиск ближайших, индексы), выполняются под блокировкой чтения: обход дерева,
+ * перестраиваемого другим потоком, нельзя безопасно проверить задним числом.
+ * Упорядоченная коллекция хранится неизменяемыми версиями, поэтому getCollection(), snapshot(), потоки
+ * по диапазонам oscarsCount, show и сохранение читают опубликованную версию вовсе без блокировки
+ * и не задерживают запись, сколько бы ни длились.
+ * <p>
+ * Блокировка StampedLock не реентерабельна, поэтому поток, уже держащий блокировку записи
+ * (например, при воспроизведении журнала во время загрузки) или чтения (например, внутри read()),
+ * выполняет вложенные чтения без повторного захвата. Изменять коллекцию внутри чтения нельзя.
+ */
+public class ConcurrentCollectionManager extends CollectionManager {
+    private final StampedLock lock = new StampedLock();
+    /**
+     * поток, держащий блокировку записи
+     */
+    private volatile Thread writer;
+    /**
+     * true, пока текущий поток держит блокировку чтения
+     */
+    private final ThreadLocal<Boolean> reading = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * Конструктор
+     *
+     * @param dumpManager    файловый менеджер
+     * @param journalManager журнал изменений (может быть null)
+     */
+    public ConcurrentCollectionManager(DumpManager dumpManager, JournalManager journalManager) {
+        super(dumpManager, journalManager);
+    }
+
+    @Override
+    public boolean loadCollection() {
+        return locked(true, super::loadCollection);
+    }
+
+    @Override
+    protected boolean replaceAll(Movie[] movies, boolean sorted) {
+        return locked(true, () -> super.replaceAll(movies, sorted));
+    }
+
+    @Override
+    public boolean isContain(Movie e) {
+        return getById(e.getId()) != null;
+    }
+
+    @Override
+    public int forEachWithScreenwriterLessThan(Person bound, Consumer<Movie> action) {
+        return locked(false, () -> super.forEachWithScreenwriterLessThan(bound, action));
+    }
+
+    @Override
+    public long forEachByIdDescending(long offset, long limit, Consumer<Movie> action) {
+        return locked(false, () -> super.forEachByIdDescending(offset, limit, action));
+    }
+
+    /**
+     * Функция получения снимка агрегатов коллекции, читаемого оптимистично
+     *
+     * @return независимая копия агрегатов
+     */
+    @Override
+    public CollectionAggregates getAggregates() {
+        if (writer == Thread.currentThread()) return super.getAggregates();
+        return optimistic(() -> aggregates().snapshot(), () -> super.getAggregates().snapshot());
+    }
+
+    @Override
+    public <T> T read(Supplier<T> query) {
+        return locked(false, query);
+    }
+
+    @Override
+    public List<Movie> nearestMovies(int x, int y, int k) {
+        return locked(false, () -> super.nearestMovies(x, y, k));
+    }
+
+    @Override
+    public long forEachInBox(int x1, int y1, int x2, int y2, Consumer<Movie> action) {
+        return locked(false, () -> super.forEachInBox(x1, y1, x2, y2, action));
+    }
+
+    @Override
+    public long forEachScreenwriterNear(double x, long y, long z, double radius, KdTree.DistanceConsumer action) {
+        return locked(false, () -> super.forEachScreenwriterNear(x, y, z, radius, action));
+    }
+
+    @Override
+    public Movie nearestScreenwriter(double x, long y, long z) {
+        return locked(false, () -> super.nearestScreenwriter(x, y, z));
+    }
+
+    @Override
+    public int forEachMatching(Set<MovieGenre> genres, Set<MpaaRating> ratings, Set<Color> eyeColors, Consumer<Movie> action) {
+        return locked(false, () -> super.forEachMatching(genres, ratings, eyeColors, action));
+    }
+
+    @Override
+    public int countMatching(Set<MovieGenre> genres, Set<MpaaRating> ratings, Set<Color> eyeColors) {
+        return locked(false, () -> super.countMatching(genres, ratings, eyeColors));
+    }
+
+    @Override
+    public Map<Color, Integer> countByEyeColor() {
+        return locked(false, super::countByEyeColor);
+    }
+
+    @Override
+    public long enumIndexMemoryBytes() {
+        return locked(false, super::enumIndexMemoryBytes);
+    }
+
+    @Override
+    public Long getFreeId() {
+        return locked(false, super::getFreeId);
+    }
+
+    @Override
+    public Movie getById(long id) {
+        return optimistic(() -> super.getById(id), () -> super.getById(id));
+    }
+
+    @Override
+    public boolean add(Movie e) {
+        return locked(true, () -> super.add(e));
+    }
+
+    @Override
+    public boolean update(Movie e) {
+        return locked(true, () -> super.update(e));
+    }
+
+    @Override
+    public boolean remove(long id) {
+        return locked(true, () -> super.remove(id));
+    }
+
+    @Override
+    public int removeLower(Movie bound) {
+        return locked(true, () -> super.removeLower(bound));
+    }
+
+    @Override
+    protected int removeLower(Movie bound, LongConsumer onRemoved) {
+        return locked(true, () -> super.removeLower(bound, onRemoved));
+    }
+
+    @Override
+    public void clear() {
+        locked(true, () -> {
+            super.clear();
+            return null;
+        });
+    }
+
+    /**
+     * Выполняет действие под блокировкой чтения или записи
+     */
+    private <T> T locked(boolean write, Supplier<T> body) {
+        if (writer == Thread.currentThread()) return body.get();
+        if (reading.get()) {
+            if (write) throw new IllegalStateException("Изменение коллекции во время чтения");
+            return body.get();
+        }
+        long stamp = write ? lock.writeLock() : lock.readLock();
+        try {
+            if (write) writer = Thread.currentThread();
+            else reading.set(true);
+            return body.get();
+        } finally {
+            if (write) writer = null;
+            else reading.set(false);
+            lock.unlock(stamp);
+        }
+    }
+
+    /**
+     * Выполняет чтение без блокировки; если за это время была запись или чтение увидело
+     * несогласованное состояние, повторяет его под блокировкой чтения
+     *
+     * @param body     оптимистичное чтение
+     * @param fallback чтение под блокировкой
+     */
+    private <T> T optimistic(Supplier<T> body, Supplier<T> fallback) {
+        if (writer == Thread.currentThread() || reading.get()) return fallback.get();
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = body.get();
+                if (lock.validate(stamp)) return result;
+            } catch (RuntimeException ignored) {
+                // состояние менялось во время чтения - повторяем под блокировкой
+            }
+        }
+        return locked(false, fallback);
+    }
+}
@@ -0,0 +1,47 @@
+package managers;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import moduls.Coordinates;
+
+import java.io.IOException;
+
+/**
+ * Потоковый адаптер Gson для Coordinates с проверкой полей при чтении
+ */
+public class CoordinatesAdapter extends TypeAdapter<Coordinates> {
+    @Override
+    public void write(JsonWriter out, Coordinates value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("x").value(value.getX());
+        out.name("y").value(value.getY());
+        out.endObject();
+    }
+
+    @Override
+    public Coordinates read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        int x = 0;
+        int y = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "x" -> x = in.nextInt();
+                case "y" -> y = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        AdapterSupport.check(x <= 516, "координата x не должна быть больше 516");
+        return new Coordinates(x, y);
+    }
+}
@@ -4,93 +4,301 @@ package managers;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParseException;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.Strictness;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+import moduls.Coordinates;
+import moduls.Location;
 import moduls.Movie;
+import moduls.Person;
 import utility.Console;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.util.Collection;
-import java.util.LinkedHashSet;
-import java.util.NoSuchElementException;
-import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
 
 public class DumpManager {
-    private final Gson gson = new GsonBuilder()
-            .setPrettyPrinting()
-            .serializeNulls()
-            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-            .create();
+    /**
+     * Формат файла коллекции
+     */
+    public enum Format {
+        /** JSON-массив, формат импорта и экспорта */
+        JSON,
+        /** двоичный снимок BinarySnapshot */
+        BINARY;
+
+        /**
+         * Возвращает список всех форматов через запятую
+         * @return строка со списком форматов
+         */
+        public static String names() {
+            StringBuilder nameList = new StringBuilder();
+            for (var format : values()) {
+                nameList.append(format.name().toLowerCase()).append(", ");
+            }
+            return nameList.substring(0, nameList.length() - 2);
+        }
+    }
+
+    private final Gson gson = gsonBuilder().serializeNulls().create();
+
+    /**
+     * размер буфера чтения и записи файла
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * минимальный размер текстового файла, начиная с которого он загружается параллельно
+     */
+    private static final long PARALLEL_THRESHOLD = 16L << 20;
+    /**
+     * отступ при форматированном выводе
+     */
+    private static final String INDENT = "  ";
 
     private final String fileName;
     private final Console console;
+    /**
+     * true, если коллекция сохраняется без отступов и переводов строк
+     */
+    private final boolean compact;
+    /**
+     * формат сохранения; если null, сохраняется в формате последнего прочитанного файла
+     */
+    private Format format;
 
     public DumpManager(String fileName, Console console) {
+        this(fileName, console, false, null);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param fileName имя файла коллекции
+     * @param console  консоль
+     * @param compact  true, если сохранять коллекцию в компактном виде
+     * @param format   формат сохранения или null, чтобы сохранять в формате загруженного файла
+     */
+    public DumpManager(String fileName, Console console, boolean compact, Format format) {
         this.fileName = fileName;
         this.console = console;
+        this.compact = compact;
+        this.format = format;
     }
 
     /**
-     * Записывает коллекцию в файл.
-     * @param collection коллекция
+     * Настройки Gson, общие для файла коллекции и журнала изменений
+     * @return построитель Gson
      */
-    public void writeCollection(Collection<Movie> collection) {
-        try (PrintWriter collectionPrintWriter = new PrintWriter(new File(fileName))) {
-            collectionPrintWriter.println(gson.toJson(collection));
-            console.println("Коллекция успешна сохранена в файл!");
-        } catch (IOException exception) {
-            console.printError("Загрузочный файл не может быть открыт!");
-        }
+    static GsonBuilder gsonBuilder() {
+        return new GsonBuilder()
+                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+                .registerTypeAdapter(Coordinates.class, new CoordinatesAdapter())
+                .registerTypeAdapter(Location.class, new LocationAdapter())
+                .registerTypeAdapter(Person.class, new PersonAdapter())
+                .registerTypeAdapter(Movie.class, new MovieAdapter());
     }
 
     /**
-     * Считывает коллекцию из файл.
-     * @param collection коллекция для заполнения
-     * @return Считанная коллекция
+     * Потоково записывает коллекцию в файл: элементы сериализуются по одному в буферизованный канал,
+     * поэтому объем выделяемой памяти не зависит от размера коллекции.
+     * Коллекция пишется во временный файл рядом с основным, фиксируется на диске и атомарно заменяет основной,
+     * поэтому сбой во время записи оставляет файл в состоянии предыдущего сохранения.
+     * В консоль ничего не выводит: метод вызывается из потока фонового сохранения, и результат сообщает вызывающий.
+     * @param collection коллекция
+     * @return true, если коллекция записана
      */
-    public Collection<Movie> readCollection(LinkedHashSet<Movie> collection) {
-        if (fileName != null && !fileName.isEmpty()) {
-            try (var fileReader = new FileReader(fileName)) {
-                var collectionType = new TypeToken<LinkedHashSet<Movie>>() {}.getType();
-                var reader = new BufferedReader(fileReader);
-
-                var jsonString = new StringBuilder();
-
-                String line;
-                while((line = reader.readLine()) != null) {
-                    line = line.trim();
-                    if (!line.equals("")) {
-                        jsonString.append(line);
-                    }
-                }
-
-                if (jsonString.length() == 0) {
-                    jsonString = new StringBuilder("[]");
+    public boolean writeCollection(Collection<Movie> collection) {
+        Path temporary = null;
+        try {
+            Path target = Path.of(fileName);
+            temporary = Path.of(fileName + ".tmp");
+            if (format == Format.BINARY) {
+                BinarySnapshot.write(temporary, collection);
+            } else {
+                writeJson(temporary, collection);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException | InvalidPathException exception) {
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException ignored) {
+                    // временный файл будет перезаписан следующим сохранением
                 }
+            }
+            return false;
+        }
+    }
 
-                LinkedHashSet<Movie> newCollection = gson.fromJson(jsonString.toString(), collectionType);
-                if (newCollection != null) {
-                    collection.clear();
-                    collection.addAll(newCollection);
-                }
+    /**
+     * Записывает коллекцию в JSON и фиксирует файл на диске
+     */
+    private void writeJson(Path path, Collection<Movie> collection) throws IOException {
+        try (var channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             var jsonWriter = new JsonWriter(new BufferedWriter(
+                     new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8), BUFFER_SIZE))) {
+            if (!compact) jsonWriter.setIndent(INDENT);
+            jsonWriter.setSerializeNulls(true);
+            TypeAdapter<Movie> movieAdapter = gson.getAdapter(Movie.class);
+            jsonWriter.beginArray();
+            for (Movie movie : collection) {
+                movieAdapter.write(jsonWriter, movie);
+            }
+            jsonWriter.endArray();
+            jsonWriter.flush();
+            channel.force(true);
+        }
+    }
 
+    /**
+     * Потоково считывает коллекцию из файла: элементы разбираются по одному
+     * и сразу передаются получателю, поэтому файл целиком в память не загружается.
+     * Формат (JSON или двоичный снимок) определяется по заголовку файла.
+     * Каждый фильм проверяется через validate(), как и при параллельной загрузке.
+     * @param consumer получатель элементов; вернув false, он прерывает чтение
+     * @return true, если файл прочитан полностью и все элементы приняты
+     */
+    public boolean readCollection(Predicate<Movie> consumer) {
+        Predicate<Movie> validated = movie -> {
+            try {
+                ParallelLoader.validate(movie);
+            } catch (ParallelLoader.LoadException exception) {
+                console.printError("Коллекция в файле '" + fileName + "' некорректна: " + exception.getMessage());
+                return false;
+            }
+            return consumer.test(movie);
+        };
+        if (fileName != null && !fileName.isEmpty()) {
+            if (isBinaryFile()) return readBinary(validated);
+            if (format == null) format = Format.JSON;
+            try (var jsonReader = new JsonReader(new BufferedReader(
+                    new InputStreamReader(new FileInputStream(fileName), StandardCharsets.UTF_8), BUFFER_SIZE))) {
+                jsonReader.setStrictness(Strictness.LENIENT);
+                if (!readArray(jsonReader, validated)) return false;
                 console.println("Коллекция успешна загружена!");
-                return collection;
-
+                return true;
             } catch (FileNotFoundException exception) {
                 console.printError("Загрузочный файл не найден: '" + fileName + "'");
-            } catch (NoSuchElementException exception) {
-                console.printError("Загрузочный файл пуст: '" + fileName + "'. Для пустой коллекции используйте []");
             } catch (JsonParseException exception) {
                 console.printError("Ошибка разбора JSON в файле '" + fileName + "': " + exception.getMessage() +
                         "\nУбедитесь, что файл содержит корректный JSON. Пример пустой коллекции: []");
-            } catch (IllegalStateException | IOException exception) {
+            } catch (IOException exception) {
                 console.printError("Ошибка ввода-вывода при работе с файлом '" + fileName + "': " + exception.getMessage());
                 System.exit(0);
             }
         } else {
             console.printError("Аргумент командной строки с загрузочным файлом не найден!");
         }
-        return collection;
+        return false;
+    }
+
+    /**
+     * @return true, если файл коллекции текстовый и достаточно велик для параллельной загрузки
+     */
+    public boolean isParallelLoadable() {
+        if (fileName == null || fileName.isEmpty()) return false;
+        File file = new File(fileName);
+        return file.isFile() && file.length() >= PARALLEL_THRESHOLD && !isBinaryFile();
+    }
+
+    /**
+     * Загружает текстовый файл коллекции (JSON-массив или NDJSON) параллельно в ForkJoinPool.
+     * Каждый фильм проверяется через validate(), повторяющиеся id считаются ошибкой.
+     * @return фильмы в естественном порядке или null, если загрузка не удалась
+     */
+    public Movie[] readCollectionParallel() {
+        if (format == null) format = Format.JSON;
+        try {
+            Movie[] movies = new ParallelLoader(gson.getAdapter(Movie.class), ForkJoinPool.commonPool()).load(Path.of(fileName));
+            console.println("Коллекция успешна загружена!");
+            return movies;
+        } catch (ParallelLoader.LoadException exception) {
+            console.printError("Коллекция в файле '" + fileName + "' некорректна: " + exception.getMessage());
+        } catch (JsonParseException | MalformedJsonException exception) {
+            console.printError("Ошибка разбора JSON в файле '" + fileName + "': " + exception.getMessage() +
+                    "\nУбедитесь, что файл содержит корректный JSON. Пример пустой коллекции: []");
+        } catch (IOException exception) {
+            console.printError("Ошибка ввода-вывода при работе с файлом '" + fileName + "': " + exception.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * @return true, если файл коллекции существует и записан в двоичном формате
+     */
+    private boolean isBinaryFile() {
+        try {
+            return BinarySnapshot.isBinary(Path.of(fileName));
+        } catch (IOException | InvalidPathException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Считывает коллекцию из двоичного снимка
+     */
+    private boolean readBinary(Predicate<Movie> consumer) {
+        if (format == null) format = Format.BINARY;
+        try {
+            if (!BinarySnapshot.read(Path.of(fileName), consumer)) return false;
+            console.println("Коллекция успешна загружена!");
+            return true;
+        } catch (IOException exception) {
+            console.printError("Двоичный файл коллекции '" + fileName + "' поврежден: " + exception.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Разбирает NDJSON: фильмы идут подряд объектами верхнего уровня, по одному в строке
+     */
+    private static boolean readLines(JsonReader jsonReader, TypeAdapter<Movie> movieAdapter, Predicate<Movie> consumer)
+            throws IOException {
+        while (jsonReader.peek() != JsonToken.END_DOCUMENT) {
+            Movie movie = movieAdapter.read(jsonReader);
+            if (movie != null && !consumer.test(movie)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Разбирает JSON-массив фильмов, передавая элементы получателю по мере чтения.
+     * Пустой файл считается пустой коллекцией.
+     */
+    private boolean readArray(JsonReader jsonReader, Predicate<Movie> consumer) throws IOException {
+        TypeAdapter<Movie> movieAdapter = gson.getAdapter(Movie.class);
+        try {
+            JsonToken token = jsonReader.peek();
+            if (token == JsonToken.END_DOCUMENT || token == JsonToken.NULL) return true;
+            if (token == JsonToken.BEGIN_OBJECT) return readLines(jsonReader, movieAdapter, consumer);
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                Movie movie = movieAdapter.read(jsonReader);
+                if (movie != null && !consumer.test(movie)) return false;
+            }
+            jsonReader.endArray();
+            return true;
+        } catch (EOFException exception) {
+            if (jsonReader.getPath().equals("$")) return true;
+            throw new JsonParseException("Неожиданный конец файла", exception);
+        } catch (MalformedJsonException | IllegalStateException | NumberFormatException exception) {
+            throw new JsonParseException(exception.getMessage(), exception);
+        }
     }
 }
\ No newline at end of file
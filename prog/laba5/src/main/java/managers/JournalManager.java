@@ -0,0 +1,401 @@
+package managers;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import moduls.Movie;
+import utility.Console;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Журнал изменений коллекции (write-ahead log).
+ * Каждое успешное изменение коллекции дописывается в конец файла одной строкой JSON,
+ * а при запуске журнал воспроизводится поверх последнего сохраненного снимка.
+ * После сохранения коллекции из журнала удаляются записи, попавшие в сохраненный снимок.
+ * Запись и очистка журнала синхронизированы, поэтому сохранение в фоне может очищать журнал,
+ * пока в него дописываются новые изменения.
+ */
+public class JournalManager implements Closeable {
+    /**
+     * Режим надежности записи журнала
+     */
+    public enum Durability {
+        /** fsync после каждой операции */
+        FSYNC,
+        /**
+         * групповая фиксация: fsync после каждых GROUP_SIZE операций, а меньшие группы фиксирует
+         * фоновый поток не позже чем через GROUP_INTERVAL_MS миллисекунд после записи
+         */
+        GROUP,
+        /** запись передается ОС без fsync */
+        OS;
+
+        /**
+         * Возвращает список всех режимов через запятую
+         * @return строка со списком режимов
+         */
+        public static String names() {
+            StringBuilder nameList = new StringBuilder();
+            for (var durability : values()) {
+                nameList.append(durability.name().toLowerCase()).append(", ");
+            }
+            return nameList.substring(0, nameList.length() - 2);
+        }
+    }
+
+    /**
+     * количество операций в одной групповой фиксации
+     */
+    private static final int GROUP_SIZE = 64;
+    /**
+     * период фоновой фиксации в режиме GROUP
+     */
+    private static final long GROUP_INTERVAL_MS = 50;
+
+    private final Gson gson = DumpManager.gsonBuilder().create();
+    private final Path path;
+    private final Console console;
+    private final Durability durability;
+
+    private FileChannel channel;
+    private Writer writer;
+    /**
+     * количество записей, еще не зафиксированных через fsync
+     */
+    private int pending;
+    /**
+     * поток фоновой фиксации режима GROUP, создается при первой записи
+     */
+    private ScheduledExecutorService syncer;
+    /**
+     * количество байт, удаленных из начала журнала с момента создания менеджера.
+     * Позиции mark() отсчитываются от начала журнала без учета удалений, поэтому позиция,
+     * полученная до очистки журнала, остается верной и после нее
+     */
+    private long discarded;
+
+    /**
+     * Запись журнала
+     */
+    private static class Record {
+        private String op;
+        private Long id;
+        private Movie movie;
+
+        private Record(String op, Long id, Movie movie) {
+            this.op = op;
+            this.id = id;
+            this.movie = movie;
+        }
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param fileName   имя файла журнала
+     * @param console    консоль
+     * @param durability режим надежности записи
+     */
+    public JournalManager(String fileName, Console console, Durability durability) {
+        this.path = Path.of(fileName);
+        this.console = console;
+        this.durability = durability;
+    }
+
+    /**
+     * @return режим надежности записи
+     */
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Записывает добавление элемента
+     * @param movie добавленный элемент
+     */
+    public void logAdd(Movie movie) {
+        append(new Record("add", null, movie));
+    }
+
+    /**
+     * Записывает обновление элемента
+     * @param movie новое значение элемента
+     */
+    public void logUpdate(Movie movie) {
+        append(new Record("update", null, movie));
+    }
+
+    /**
+     * Записывает удаление элемента
+     * @param id id удаленного элемента
+     */
+    public void logRemove(long id) {
+        append(new Record("remove", id, null));
+    }
+
+    /**
+     * Записывает удаление всех элементов, меньших заданного
+     * @param bound элемент для сравнения
+     */
+    public void logRemoveLower(Movie bound) {
+        append(new Record("remove_lower", null, bound));
+    }
+
+    /**
+     * Записывает очистку коллекции
+     */
+    public void logClear() {
+        append(new Record("clear", null, null));
+    }
+
+    /**
+     * Воспроизводит журнал поверх загруженной коллекции.
+     * Недописанная последняя строка (без перевода строки, например, после аварийного завершения) пропускается
+     * и удаляется из файла, чтобы следующие записи не склеились с ней. Некорректные записи в середине журнала
+     * пропускаются с сообщением об ошибке, а записи после них воспроизводятся.
+     * Фильмы из записей проверяются так же, как при загрузке файла коллекции.
+     *
+     * @param collectionManager менеджер коллекции
+     * @return количество воспроизведенных записей
+     */
+    public int replay(CollectionManager collectionManager) {
+        if (!Files.exists(path)) return 0;
+        int count = 0;
+        try {
+            boolean terminated = endsWithNewline();
+            String torn = null;
+            try (var reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String next = reader.readLine();
+                while (next != null) {
+                    String line = next;
+                    next = reader.readLine();
+                    if (line.isBlank()) continue;
+                    Record record;
+                    try {
+                        record = gson.fromJson(line, Record.class);
+                    } catch (JsonParseException exception) {
+                        if (next == null && !terminated) {
+                            console.printError("Журнал поврежден после записи " + count + ", недописанная запись пропущена");
+                            torn = line;
+                        } else {
+                            console.printError("Некорректная запись в журнале: '" + line + "': " + exception.getMessage());
+                        }
+                        continue;
+                    }
+                    if (record == null) continue;
+                    try {
+                        if (!apply(record, collectionManager)) {
+                            console.printError("Некорректная запись в журнале: '" + line + "'");
+                            continue;
+                        }
+                    } catch (ParallelLoader.LoadException exception) {
+                        console.printError("Некорректная запись в журнале: " + exception.getMessage());
+                        continue;
+                    }
+                    count++;
+                }
+            }
+            if (!terminated) repairTail(torn);
+        } catch (IOException exception) {
+            console.printError("Ошибка чтения журнала '" + path + "': " + exception.getMessage());
+        }
+        return count;
+    }
+
+    /**
+     * @return true, если файл журнала пуст или заканчивается переводом строки
+     */
+    private boolean endsWithNewline() throws IOException {
+        try (var file = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = file.size();
+            if (size == 0) return true;
+            ByteBuffer last = ByteBuffer.allocate(1);
+            file.read(last, size - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    /**
+     * Дописывает перевод строки после последней записи или отрезает недописанную запись,
+     * чтобы новые записи начинались с новой строки
+     *
+     * @param torn недописанная последняя строка или null, если последняя запись цела
+     */
+    private synchronized void repairTail(String torn) throws IOException {
+        close();
+        try (var file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            if (torn == null) {
+                file.write(ByteBuffer.wrap(new byte[]{'\n'}), file.size());
+            } else {
+                file.truncate(file.size() - torn.getBytes(StandardCharsets.UTF_8).length);
+            }
+            file.force(false);
+        }
+    }
+
+    /**
+     * Возвращает текущую позицию конца журнала.
+     * Все записи, сделанные до вызова, лежат до этой позиции.
+     * Позиция отсчитывается от начала журнала с учетом всех удаленных из него записей,
+     * поэтому ее можно передать в discardUpTo и после очисток журнала, сделанных другими сохранениями
+     *
+     * @return позиция в байтах
+     */
+    public synchronized long mark() {
+        try {
+            if (channel != null) {
+                writer.flush();
+                return discarded + channel.size();
+            }
+            return discarded + (Files.exists(path) ? Files.size(path) : 0);
+        } catch (IOException exception) {
+            console.printError("Ошибка чтения журнала '" + path + "': " + exception.getMessage());
+            return discarded;
+        }
+    }
+
+    /**
+     * Удаляет из журнала записи до позиции mark, уже вошедшие в сохраненный снимок.
+     * Оставшиеся записи копируются во временный файл, который атомарно заменяет журнал.
+     * Позиция, не превосходящая уже удаленную часть журнала, ничего не удаляет
+     *
+     * @param mark позиция, полученная из mark() в момент фиксации снимка
+     */
+    public synchronized void discardUpTo(long mark) {
+        long length = mark - discarded;
+        if (length <= 0) return;
+        try {
+            close();
+            if (!Files.exists(path)) return;
+            long size = Files.size(path);
+            if (size <= length) {
+                Files.deleteIfExists(path);
+                discarded += size;
+                return;
+            }
+            Path tail = Path.of(path + ".tmp");
+            try (var source = FileChannel.open(path, StandardOpenOption.READ);
+                 var target = FileChannel.open(tail, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long position = length;
+                while (position < size) position += source.transferTo(position, size - position, target);
+                target.force(false);
+            }
+            Files.move(tail, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            discarded += length;
+        } catch (IOException exception) {
+            console.printError("Не удалось очистить журнал '" + path + "': " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Фиксирует все записи на диске и закрывает файл журнала
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel == null) return;
+        writer.flush();
+        channel.force(false);
+        writer.close();
+        channel = null;
+        writer = null;
+        pending = 0;
+    }
+
+    /**
+     * Применяет запись журнала к коллекции
+     * @return false, если запись некорректна
+     * @throws ParallelLoader.LoadException если фильм в записи некорректен
+     */
+    private static boolean apply(Record record, CollectionManager collectionManager) throws ParallelLoader.LoadException {
+        if (record.op == null) return false;
+        switch (record.op) {
+            case "add" -> {
+                if (record.movie == null) return false;
+                ParallelLoader.validate(record.movie);
+                collectionManager.add(record.movie);
+            }
+            case "update" -> {
+                if (record.movie == null) return false;
+                ParallelLoader.validate(record.movie);
+                collectionManager.update(record.movie);
+            }
+            case "remove" -> {
+                if (record.id == null) return false;
+                collectionManager.remove(record.id);
+            }
+            case "remove_lower" -> {
+                if (record.movie == null) return false;
+                ParallelLoader.validate(record.movie);
+                collectionManager.removeLower(record.movie);
+            }
+            case "clear" -> collectionManager.clear();
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private synchronized void append(Record record) {
+        try {
+            if (channel == null) open();
+            writer.write(gson.toJson(record));
+            writer.write('\n');
+            writer.flush();
+            pending++;
+            switch (durability) {
+                case FSYNC -> sync();
+                case GROUP -> {
+                    if (pending >= GROUP_SIZE) sync();
+                    else if (syncer == null) startSyncer();
+                }
+                case OS -> {
+                }
+            }
+        } catch (IOException exception) {
+            console.printError("Ошибка записи в журнал '" + path + "': " + exception.getMessage());
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+    }
+
+    private void sync() throws IOException {
+        channel.force(false);
+        pending = 0;
+    }
+
+    /**
+     * Запускает фоновую фиксацию записей, не набравших полную группу
+     */
+    private void startSyncer() {
+        syncer = Executors.newSingleThreadScheduledExecutor(task -> {
+            var thread = new Thread(task, "journal-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleAtFixedRate(this::syncPending, GROUP_INTERVAL_MS, GROUP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void syncPending() {
+        if (channel == null || pending == 0) return;
+        try {
+            sync();
+        } catch (IOException exception) {
+            console.printError("Ошибка записи в журнал '" + path + "': " + exception.getMessage());
+        }
+    }
+}
@@ -1,28 +1,60 @@
 package managers;
 
-import com.google.gson.*;
-import java.lang.reflect.Type;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 /**
  * Адаптер для корректной сериализации и десериализации java.time.LocalDate.
- * Использует стандартный формат ISO (YYYY-MM-DD)   .
+ * Использует стандартный формат ISO (YYYY-MM-DD) и работает с потоком напрямую, без промежуточных JsonElement.
  */
-public class LocalDateAdapter implements JsonSerializer<LocalDate>, JsonDeserializer<LocalDate> {
+public class LocalDateAdapter extends TypeAdapter<LocalDate> {
 
     // Стандартный и самый распространенный формат для дат.
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
 
     @Override
-    public JsonElement serialize(LocalDate src, Type typeOfSrc, JsonSerializationContext context) {
+    public void write(JsonWriter out, LocalDate value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
         // Преобразуем объект LocalDate в строку формата "YYYY-MM-DD"
-        return new JsonPrimitive(src.format(FORMATTER));
+        out.value(value.format(FORMATTER));
     }
 
     @Override
-    public LocalDate deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-        // Преобразуем строку формата "YYYY-MM-DD" обратно в объект LocalDate
-        return LocalDate.parse(json.getAsString(), FORMATTER);
+    public LocalDate read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String text = in.nextString();
+        try {
+            // Быстрый путь для "YYYY-MM-DD" без разбора шаблона форматтера
+            if (text.length() == 10 && text.charAt(4) == '-' && text.charAt(7) == '-') {
+                return LocalDate.of(digits(text, 0, 4), digits(text, 5, 7), digits(text, 8, 10));
+            }
+            return LocalDate.parse(text, FORMATTER);
+        } catch (DateTimeException | NumberFormatException exception) {
+            throw new JsonParseException("Некорректная дата '" + text + "'", exception);
+        }
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) throw new NumberFormatException(text);
+            value = value * 10 + digit;
+        }
+        return value;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,57 @@
+package managers;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import moduls.Location;
+
+import java.io.IOException;
+
+/**
+ * Потоковый адаптер Gson для Location с проверкой полей при чтении
+ */
+public class LocationAdapter extends TypeAdapter<Location> {
+    @Override
+    public void write(JsonWriter out, Location value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("x").value(value.getX());
+        out.name("y").value(value.getY());
+        out.name("z").value(value.getZ());
+        out.name("name").value(value.getName());
+        out.endObject();
+    }
+
+    @Override
+    public Location read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        double x = 0;
+        long y = 0;
+        Long z = null;
+        String name = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "x" -> x = in.nextDouble();
+                case "y" -> y = in.nextLong();
+                case "z" -> {
+                    if (in.peek() == JsonToken.NULL) in.nextNull();
+                    else z = in.nextLong();
+                }
+                case "name" -> name = AdapterSupport.readString(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        AdapterSupport.check(z != null, "Location.z не может быть null");
+        AdapterSupport.check(name != null, "Location.name не может быть null");
+        return new Location(x, y, z, name);
+    }
+}
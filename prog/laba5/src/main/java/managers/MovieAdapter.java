@@ -0,0 +1,84 @@
+package managers;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import moduls.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Потоковый адаптер Gson для Movie.
+ * Поля проверяются сразу при чтении, поэтому некорректный фильм не попадает в коллекцию.
+ */
+public class MovieAdapter extends TypeAdapter<Movie> {
+    private static final Map<String, MovieGenre> GENRES = AdapterSupport.byName(MovieGenre.values());
+    private static final Map<String, MpaaRating> RATINGS = AdapterSupport.byName(MpaaRating.values());
+
+    private final CoordinatesAdapter coordinatesAdapter = new CoordinatesAdapter();
+    private final LocalDateAdapter localDateAdapter = new LocalDateAdapter();
+    private final PersonAdapter personAdapter = new PersonAdapter();
+
+    @Override
+    public void write(JsonWriter out, Movie value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(value.getId());
+        out.name("name").value(value.getName());
+        out.name("coordinates");
+        coordinatesAdapter.write(out, value.getCoordinates());
+        out.name("creationDate");
+        localDateAdapter.write(out, value.getCreationDate());
+        out.name("oscarsCount").value(value.getOscarsCount());
+        out.name("genre").value(value.getGenre() == null ? null : value.getGenre().name());
+        out.name("mpaaRating").value(value.getMpaaRating() == null ? null : value.getMpaaRating().name());
+        out.name("screenwriter");
+        personAdapter.write(out, value.getScreenwriter());
+        out.endObject();
+    }
+
+    @Override
+    public Movie read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        long id = 0;
+        String name = null;
+        Coordinates coordinates = null;
+        LocalDate creationDate = null;
+        long oscarsCount = 0;
+        MovieGenre genre = null;
+        MpaaRating mpaaRating = null;
+        Person screenwriter = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id" -> id = in.nextLong();
+                case "name" -> name = AdapterSupport.readString(in);
+                case "coordinates" -> coordinates = coordinatesAdapter.read(in);
+                case "creationDate" -> creationDate = localDateAdapter.read(in);
+                case "oscarsCount" -> oscarsCount = in.nextLong();
+                case "genre" -> genre = AdapterSupport.readEnum(in, GENRES, "Movie.genre");
+                case "mpaaRating" -> mpaaRating = AdapterSupport.readEnum(in, RATINGS, "Movie.mpaaRating");
+                case "screenwriter" -> screenwriter = personAdapter.read(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        AdapterSupport.check(id > 0, "Movie.id должен быть больше 0");
+        AdapterSupport.check(name != null && !name.isEmpty(), "Movie.name не может быть null и не должен быть пустым (id=" + id + ")");
+        AdapterSupport.check(coordinates != null, "Movie.coordinates не может быть null (id=" + id + ")");
+        AdapterSupport.check(creationDate != null, "Movie.creationDate не может быть null (id=" + id + ")");
+        AdapterSupport.check(oscarsCount > 0, "Movie.oscarsCount должен быть больше 0 (id=" + id + ")");
+        AdapterSupport.check(genre != null, "Movie.genre не может быть null (id=" + id + ")");
+        AdapterSupport.check(mpaaRating != null, "Movie.mpaaRating не может быть null (id=" + id + ")");
+        return new Movie(id, name, coordinates, creationDate, oscarsCount, genre, mpaaRating, screenwriter);
+    }
+}
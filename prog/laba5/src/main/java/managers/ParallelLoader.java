@@ -0,0 +1,267 @@
+package managers;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.Strictness;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import moduls.Movie;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+/**
+ * Параллельная загрузка больших файлов коллекции.
+ * <p>
+ * Файл (JSON-массив или NDJSON - по одному объекту в строке) делится на диапазоны байт по границам элементов,
+ * диапазоны разбираются в ForkJoinPool, каждый фильм проверяется через validate(),
+ * после чего повторяющиеся id ищутся и коллекция сортируется параллельно.
+ */
+public class ParallelLoader {
+    /**
+     * Ошибка загрузки: некорректный элемент или повторяющийся id
+     */
+    public static class LoadException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public LoadException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Диапазон байт файла [start, end)
+     */
+    private record Chunk(long start, long end) {
+    }
+
+    /**
+     * примерный размер одного диапазона
+     */
+    private static final long CHUNK_SIZE = 4L << 20;
+    /**
+     * размер окна отображения при поиске границ
+     */
+    private static final long WINDOW_SIZE = 1L << 30;
+    private static final byte[] OPEN = {'['};
+    private static final byte[] CLOSE = {']'};
+
+    private final TypeAdapter<Movie> movieAdapter;
+    private final ForkJoinPool pool;
+
+    /**
+     * Конструктор
+     *
+     * @param movieAdapter адаптер Gson для фильма (потокобезопасный)
+     * @param pool         пул потоков для разбора
+     */
+    public ParallelLoader(TypeAdapter<Movie> movieAdapter, ForkJoinPool pool) {
+        this.movieAdapter = movieAdapter;
+        this.pool = pool;
+    }
+
+    /**
+     * Загружает файл коллекции
+     *
+     * @param path путь к файлу
+     * @return фильмы, отсортированные в естественном порядке
+     * @throws IOException   при ошибке чтения или разбора
+     * @throws LoadException если фильм некорректен или id повторяется
+     */
+    public Movie[] load(Path path) throws IOException, LoadException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int first = firstToken(channel);
+            boolean array = first == '[';
+            if (!array && first != '{') throw new JsonParseException("ожидался JSON-массив или NDJSON");
+            List<Chunk> chunks = array ? splitArray(channel) : splitLines(channel);
+            List<Callable<Movie[]>> tasks = new ArrayList<>(chunks.size());
+            for (Chunk chunk : chunks) tasks.add(() -> parse(channel, chunk, array));
+            List<Movie[]> parts = new ArrayList<>(chunks.size());
+            try {
+                for (Future<Movie[]> future : pool.invokeAll(tasks)) parts.add(future.get());
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IOException("загрузка прервана");
+            } catch (ExecutionException exception) {
+                Throwable cause = exception.getCause();
+                // ForkJoinPool оборачивает проверяемые исключения задачи в RuntimeException без собственного сообщения
+                if (cause.getClass() == RuntimeException.class && cause.getCause() != null) cause = cause.getCause();
+                if (cause instanceof IOException ioException) throw ioException;
+                if (cause instanceof LoadException loadException) throw loadException;
+                if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+                throw new IOException(cause);
+            }
+            return merge(parts);
+        }
+    }
+
+    /**
+     * Объединяет разобранные диапазоны, проверяет уникальность id и сортирует фильмы
+     */
+    private Movie[] merge(List<Movie[]> parts) throws LoadException {
+        int total = 0;
+        for (Movie[] part : parts) total += part.length;
+        Movie[] movies = new Movie[total];
+        int offset = 0;
+        for (Movie[] part : parts) {
+            System.arraycopy(part, 0, movies, offset, part.length);
+            offset += part.length;
+        }
+        long[] ids = new long[total];
+        IntStream.range(0, total).parallel().forEach(i -> ids[i] = movies[i].getId());
+        Arrays.parallelSort(ids);
+        if (total > 0 && ids[0] < 1) throw new LoadException("id должен быть больше 0: " + ids[0]);
+        int duplicate = IntStream.range(1, total).parallel().filter(i -> ids[i] == ids[i - 1]).findAny().orElse(-1);
+        if (duplicate >= 0) throw new LoadException("Повторяющийся id: " + ids[duplicate]);
+        Arrays.parallelSort(movies);
+        return movies;
+    }
+
+    /**
+     * Разбирает один диапазон файла и проверяет каждый фильм
+     */
+    private Movie[] parse(FileChannel channel, Chunk chunk, boolean array) throws IOException, LoadException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start(), chunk.end() - chunk.start());
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        InputStream input = new ByteArrayInputStream(bytes);
+        if (array) {
+            input = new SequenceInputStream(new ByteArrayInputStream(OPEN),
+                    new SequenceInputStream(input, new ByteArrayInputStream(CLOSE)));
+        }
+        List<Movie> movies = new ArrayList<>();
+        try (var reader = new JsonReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            reader.setStrictness(Strictness.LENIENT);
+            if (array) reader.beginArray();
+            while (array ? reader.hasNext() : reader.peek() != JsonToken.END_DOCUMENT) {
+                Movie movie = movieAdapter.read(reader);
+                if (movie == null) continue;
+                validate(movie);
+                movies.add(movie);
+            }
+        } catch (IllegalStateException | NumberFormatException exception) {
+            throw new JsonParseException(exception.getMessage(), exception);
+        }
+        return movies.toArray(new Movie[0]);
+    }
+
+    /**
+     * Проверяет загруженный фильм через validate(). Используется и при последовательной загрузке,
+     * чтобы файл принимался или отклонялся одинаково независимо от размера
+     *
+     * @param movie фильм
+     * @throws LoadException если фильм некорректен
+     */
+    static void validate(Movie movie) throws LoadException {
+        List<String> errors = movie.validate();
+        if (!errors.isEmpty()) {
+            throw new LoadException("Элемент с id=" + movie.getId() + " некорректен: " + String.join("; ", errors));
+        }
+    }
+
+    /**
+     * @return первый значимый байт файла или -1, если файл пуст
+     */
+    private static int firstToken(FileChannel channel) throws IOException {
+        long size = channel.size();
+        for (long position = 0; position < size; position += WINDOW_SIZE) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+            for (int i = 0; i < window.limit(); i++) {
+                byte b = window.get(i);
+                if (!isWhitespace(b) && b != (byte) 0xEF && b != (byte) 0xBB && b != (byte) 0xBF) return b;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Делит NDJSON по переводам строк: внутри строки JSON перевод строки встречаться не может,
+     * поэтому границы ищутся без прохода по всему файлу
+     */
+    private static List<Chunk> splitLines(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Chunk> chunks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + CHUNK_SIZE);
+            while (end < size) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, end, Math.min(CHUNK_SIZE, size - end));
+                int i = 0;
+                while (i < window.limit() && window.get(i) != '\n') i++;
+                end += i;
+                if (i < window.limit()) {
+                    end++;
+                    break;
+                }
+            }
+            chunks.add(new Chunk(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Делит JSON-массив по запятым верхнего уровня.
+     * Для этого файл один раз просматривается побайтно с учетом вложенности и строк,
+     * что намного дешевле самого разбора.
+     */
+    private static List<Chunk> splitArray(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Chunk> chunks = new ArrayList<>();
+        int depth = 0;
+        boolean inString = false;
+        boolean escape = false;
+        long chunkStart = -1;
+        for (long position = 0; position < size; position += WINDOW_SIZE) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+            int limit = window.limit();
+            for (int i = 0; i < limit; i++) {
+                byte b = window.get(i);
+                if (inString) {
+                    if (escape) escape = false;
+                    else if (b == '\\') escape = true;
+                    else if (b == '"') inString = false;
+                    continue;
+                }
+                switch (b) {
+                    case '"' -> inString = true;
+                    case '[', '{' -> {
+                        if (++depth == 1) chunkStart = position + i + 1;
+                    }
+                    case ']', '}' -> {
+                        if (--depth == 0) {
+                            chunks.add(new Chunk(chunkStart, position + i));
+                            return chunks;
+                        }
+                    }
+                    case ',' -> {
+                        long offset = position + i;
+                        if (depth == 1 && offset - chunkStart >= CHUNK_SIZE) {
+                            chunks.add(new Chunk(chunkStart, offset));
+                            chunkStart = offset + 1;
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+        throw new EOFException("JSON-массив не закрыт");
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+}
@@ -0,0 +1,64 @@
+package managers;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import moduls.Color;
+import moduls.Location;
+import moduls.Person;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Потоковый адаптер Gson для Person с проверкой полей при чтении
+ */
+public class PersonAdapter extends TypeAdapter<Person> {
+    private static final Map<String, Color> COLORS = AdapterSupport.byName(Color.values());
+
+    private final LocationAdapter locationAdapter = new LocationAdapter();
+
+    @Override
+    public void write(JsonWriter out, Person value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("name").value(value.getName());
+        out.name("height").value(value.getHeight());
+        out.name("eyeColor").value(value.getEyeColor() == null ? null : value.getEyeColor().name());
+        out.name("location");
+        locationAdapter.write(out, value.getLocation());
+        out.endObject();
+    }
+
+    @Override
+    public Person read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String name = null;
+        float height = 0;
+        Color eyeColor = null;
+        Location location = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "name" -> name = AdapterSupport.readString(in);
+                case "height" -> height = (float) in.nextDouble();
+                case "eyeColor" -> eyeColor = AdapterSupport.readEnum(in, COLORS, "Person.eyeColor");
+                case "location" -> location = locationAdapter.read(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        AdapterSupport.check(name != null && !name.isEmpty(), "Person.name не может быть null и не должен быть пустым");
+        AdapterSupport.check(height > 0, "Person.height должен быть больше 0");
+        AdapterSupport.check(eyeColor != null, "Person.eyeColor не может быть null");
+        AdapterSupport.check(location != null, "Person.location не может быть null");
+        return new Person(name, height, eyeColor, location);
+    }
+}
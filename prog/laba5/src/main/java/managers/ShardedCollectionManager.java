@@ -0,0 +1,499 @@
+package managers;
+
+import moduls.Color;
+import moduls.Location;
+import moduls.Movie;
+import moduls.MovieGenre;
+import moduls.MpaaRating;
+import moduls.Person;
+import utility.CollectionAggregates;
+import utility.IdAllocator;
+import utility.KdTree;
+import utility.LongHash;
+import utility.MergingIterator;
+import utility.QueryExecutor;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Менеджер коллекции, разбитой по хешу id на несколько шардов.
+ * <p>
+ * Каждый шард - отдельный ConcurrentCollectionManager со своей блокировкой, деревом и индексами,
+ * поэтому операции над одним элементом (add, update, remove_by_id, getById) блокируют только свой шард
+ * и на разных шардах выполняются параллельно. Свободные id выдает общий распределитель.
+ * <p>
+ * Изменение шарда, распределителя id и запись в журнал выполняются под монитором шарда, поэтому
+ * изменения одного id не перемешиваются между собой ни в распределителе, ни в журнале.
+ * remove_lower, clear и загрузка берут мониторы всех шардов по порядку номеров и только затем
+ * изменяют шарды параллельно, так что одновременные изменения отдельных элементов ждут их окончания.
+ * Монитор распределителя всегда берется после мониторов шардов.
+ * <p>
+ * Упорядоченные операции над всей коллекцией (show, сохранение, add_if_max, диапазоны oscarsCount)
+ * сливают упорядоченные версии шардов k-путевым слиянием, а подсчеты выполняются на всех шардах параллельно.
+ * Чтения не берут мониторов, поэтому чтение всей коллекции во время remove_lower или clear
+ * может увидеть одни шарды уже измененными, а другие еще нет.
+ */
+public class ShardedCollectionManager extends CollectionManager {
+    private final ConcurrentCollectionManager[] shards;
+    /**
+     * мониторы шардов, под которыми изменения шарда согласуются с распределителем id и журналом
+     */
+    private final Object[] monitors;
+    /**
+     * общий распределитель id, защищен собственным монитором
+     */
+    private final IdAllocator idAllocator = new IdAllocator();
+    /**
+     * журнал изменений (может быть null)
+     */
+    private final JournalManager journalManager;
+
+    /**
+     * Конструктор
+     *
+     * @param dumpManager    файловый менеджер
+     * @param journalManager журнал изменений (может быть null)
+     * @param shardCount     количество шардов
+     */
+    public ShardedCollectionManager(DumpManager dumpManager, JournalManager journalManager, int shardCount) {
+        super(dumpManager, journalManager);
+        if (shardCount < 1) throw new IllegalArgumentException("Количество шардов должно быть положительным");
+        this.journalManager = journalManager;
+        this.shards = new ConcurrentCollectionManager[shardCount];
+        this.monitors = new Object[shardCount];
+        for (int i = 0; i < shardCount; i++) monitors[i] = new Object();
+        // Шарды не читают и не пишут файл и журнал: этим занимается сам менеджер
+        for (int i = 0; i < shardCount; i++) shards[i] = new ConcurrentCollectionManager(null, null);
+    }
+
+    /**
+     * @return количество шардов
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    private ConcurrentCollectionManager shard(long id) {
+        return shards[shardIndex(id)];
+    }
+
+    private Object monitor(long id) {
+        return monitors[shardIndex(id)];
+    }
+
+    /**
+     * Выполняет действие, удерживая мониторы всех шардов, взятые по порядку номеров
+     */
+    private <T> T withAllShards(Supplier<T> body) {
+        return withShardsFrom(0, body);
+    }
+
+    private <T> T withShardsFrom(int i, Supplier<T> body) {
+        if (i == monitors.length) return body.get();
+        synchronized (monitors[i]) {
+            return withShardsFrom(i + 1, body);
+        }
+    }
+
+    /**
+     * Номер шарда элемента: id перемешивается, чтобы подряд идущие id распределялись по шардам равномерно
+     */
+    private int shardIndex(long id) {
+        return Math.floorMod(LongHash.mix(id), shards.length);
+    }
+
+    @Override
+    protected boolean replaceAll(Movie[] movies, boolean sorted) {
+        return withAllShards(() -> replaceAllLocked(movies, sorted));
+    }
+
+    private boolean replaceAllLocked(Movie[] movies, boolean sorted) {
+        List<List<Movie>> parts = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) parts.add(new ArrayList<>(movies.length / shards.length + 1));
+        long[] ids = new long[movies.length];
+        for (int i = 0; i < movies.length; i++) {
+            Movie e = movies[i];
+            ids[i] = e.getId();
+            parts.get(shardIndex(e.getId())).add(e);
+        }
+        // Повторяющиеся id попадают в один шард, поэтому каждый шард проверяет свою часть сам
+        boolean loaded = IntStream.range(0, shards.length).parallel()
+                .mapToObj(i -> shards[i].replaceAll(parts.get(i).toArray(new Movie[0]), sorted))
+                .reduce(true, Boolean::logicalAnd);
+        synchronized (idAllocator) {
+            if (!loaded) {
+                for (ConcurrentCollectionManager shard : shards) shard.replaceAll(new Movie[0], true);
+                idAllocator.reset();
+                return false;
+            }
+            Arrays.parallelSort(ids);
+            idAllocator.rebuild(ids);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isContain(Movie e) {
+        return getById(e.getId()) != null;
+    }
+
+    /**
+     * Функция получения коллекции из менеджера
+     *
+     * @return неизменяемое слияние текущих версий шардов в естественном порядке
+     */
+    @Override
+    public Set<Movie> getCollection() {
+        return snapshot().getMovies();
+    }
+
+    /**
+     * Функция фиксации текущих версий всех шардов.
+     * Номер версии - сумма номеров версий шардов, он увеличивается при каждом изменении любого шарда
+     *
+     * @return слияние версий шардов
+     */
+    @Override
+    public CollectionSnapshot snapshot() {
+        List<Set<Movie>> parts = new ArrayList<>(shards.length);
+        long version = 0;
+        for (ConcurrentCollectionManager shard : shards) {
+            CollectionSnapshot snapshot = shard.snapshot();
+            version += snapshot.getVersion();
+            parts.add(snapshot.getMovies());
+        }
+        return new CollectionSnapshot(version, new MergedSet(parts));
+    }
+
+    @Override
+    public long getVersion() {
+        long version = 0;
+        for (ConcurrentCollectionManager shard : shards) version += shard.getVersion();
+        return version;
+    }
+
+    /**
+     * Неизменяемое слияние упорядоченных частей коллекции
+     */
+    private static final class MergedSet extends AbstractSet<Movie> {
+        private final List<Set<Movie>> parts;
+        private final int size;
+
+        private MergedSet(List<Set<Movie>> parts) {
+            this.parts = parts;
+            this.size = parts.stream().mapToInt(Set::size).sum();
+        }
+
+        @Override
+        public Iterator<Movie> iterator() {
+            return new MergingIterator<>(parts.stream().map(Set::iterator).toList(), Comparator.naturalOrder());
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Функция обхода элементов, сценарист которых меньше заданного.
+     * Шарды отбирают свои элементы параллельно, а результаты сливаются в порядке сценаристов
+     */
+    @Override
+    public int forEachWithScreenwriterLessThan(Person bound, Consumer<Movie> action) {
+        Comparator<Movie> order = Comparator.comparing(Movie::getScreenwriter).thenComparing(Comparator.naturalOrder());
+        return forEachMerged(shard -> {
+            List<Movie> movies = new ArrayList<>();
+            shard.forEachWithScreenwriterLessThan(bound, movies::add);
+            return movies;
+        }, order, action);
+    }
+
+    /**
+     * Функция обхода элементов в порядке убывания id.
+     * id выводимых элементов берутся из общего распределителя, а элементы - из их шардов
+     */
+    @Override
+    public long forEachByIdDescending(long offset, long limit, Consumer<Movie> action) {
+        if (limit <= 0) return 0;
+        LongStream.Builder ids = LongStream.builder();
+        synchronized (idAllocator) {
+            long[] count = {0};
+            idAllocator.forEachUsedDescending(offset, id -> {
+                ids.add(id);
+                return ++count[0] < limit;
+            });
+        }
+        long[] count = {0};
+        ids.build().forEach(id -> {
+            Movie movie = getById(id);
+            if (movie == null) return;
+            action.accept(movie);
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    /**
+     * @return сумма снимков агрегатов шардов
+     */
+    @Override
+    public CollectionAggregates getAggregates() {
+        return aggregates();
+    }
+
+    @Override
+    protected CollectionAggregates aggregates() {
+        var total = new CollectionAggregates();
+        for (ConcurrentCollectionManager shard : shards) total.merge(shard.getAggregates());
+        return total;
+    }
+
+    /**
+     * Запрос выполняется без общей блокировки: методы, к которым он обращается, блокируют свои шарды сами
+     */
+    @Override
+    public <T> T read(Supplier<T> query) {
+        return query.get();
+    }
+
+    @Override
+    public Stream<Movie> streamOscarsBetween(long from, long to) {
+        return merged(shard -> shard.streamOscarsBetween(from, to).iterator(), Comparator.naturalOrder());
+    }
+
+    @Override
+    public Stream<Movie> streamTopOscars(long limit) {
+        return merged(shard -> shard.streamTopOscars(limit).iterator(), Comparator.<Movie>naturalOrder().reversed()).limit(limit);
+    }
+
+    @Override
+    public void setQueryExecutor(QueryExecutor queryExecutor) {
+        super.setQueryExecutor(queryExecutor);
+        for (ConcurrentCollectionManager shard : shards) shard.setQueryExecutor(queryExecutor);
+    }
+
+    /**
+     * Функция отбора элементов по условию: шарды отбирают элементы параллельно, а их упорядоченные результаты сливаются
+     */
+    @Override
+    public List<Movie> filter(Predicate<Movie> predicate) {
+        List<Movie> movies = new ArrayList<>();
+        forEachMerged(shard -> shard.filter(predicate), Comparator.naturalOrder(), movies::add);
+        return movies;
+    }
+
+    @Override
+    public List<Movie> nearestMovies(int x, int y, int k) {
+        Comparator<Movie> byDistance = Comparator.<Movie>comparingDouble(movie -> {
+            double dx = movie.getCoordinates().getX() - (double) x;
+            double dy = movie.getCoordinates().getY() - (double) y;
+            return dx * dx + dy * dy;
+        }).thenComparingLong(Movie::getId);
+        return Arrays.stream(shards).parallel()
+                .flatMap(shard -> shard.nearestMovies(x, y, k).stream())
+                .sorted(byDistance)
+                .limit(k)
+                .toList();
+    }
+
+    @Override
+    public long forEachInBox(int x1, int y1, int x2, int y2, Consumer<Movie> action) {
+        long count = 0;
+        for (ConcurrentCollectionManager shard : shards) count += shard.forEachInBox(x1, y1, x2, y2, action);
+        return count;
+    }
+
+    @Override
+    public long forEachScreenwriterNear(double x, long y, long z, double radius, KdTree.DistanceConsumer action) {
+        long count = 0;
+        for (ConcurrentCollectionManager shard : shards) count += shard.forEachScreenwriterNear(x, y, z, radius, action);
+        return count;
+    }
+
+    @Override
+    public Movie nearestScreenwriter(double x, long y, long z) {
+        Comparator<Movie> byDistance = Comparator.<Movie>comparingDouble(movie -> {
+            Location location = movie.getScreenwriter().getLocation();
+            double dx = location.getX() - x;
+            double dy = location.getY() - (double) y;
+            double dz = location.getZ() - (double) z;
+            return dx * dx + dy * dy + dz * dz;
+        }).thenComparingLong(Movie::getId);
+        return Arrays.stream(shards)
+                .map(shard -> shard.nearestScreenwriter(x, y, z))
+                .filter(Objects::nonNull)
+                .min(byDistance)
+                .orElse(null);
+    }
+
+    @Override
+    public int forEachMatching(Set<MovieGenre> genres, Set<MpaaRating> ratings, Set<Color> eyeColors, Consumer<Movie> action) {
+        int count = 0;
+        for (ConcurrentCollectionManager shard : shards) count += shard.forEachMatching(genres, ratings, eyeColors, action);
+        return count;
+    }
+
+    @Override
+    public int countMatching(Set<MovieGenre> genres, Set<MpaaRating> ratings, Set<Color> eyeColors) {
+        return Arrays.stream(shards).parallel().mapToInt(shard -> shard.countMatching(genres, ratings, eyeColors)).sum();
+    }
+
+    @Override
+    public Map<Color, Integer> countByEyeColor() {
+        return sumCounts(new EnumMap<>(Color.class), ConcurrentCollectionManager::countByEyeColor);
+    }
+
+    private <E extends Enum<E>> Map<E, Integer> sumCounts(Map<E, Integer> total, Function<ConcurrentCollectionManager, Map<E, Integer>> counts) {
+        for (ConcurrentCollectionManager shard : shards) counts.apply(shard).forEach((key, n) -> total.merge(key, n, Integer::sum));
+        return total;
+    }
+
+    @Override
+    public long enumIndexMemoryBytes() {
+        long bytes = 0;
+        for (ConcurrentCollectionManager shard : shards) bytes += shard.enumIndexMemoryBytes();
+        return bytes;
+    }
+
+    @Override
+    public Long getFreeId() {
+        synchronized (idAllocator) {
+            return idAllocator.lowestFree();
+        }
+    }
+
+    @Override
+    public Movie getById(long id) {
+        return shard(id).getById(id);
+    }
+
+    @Override
+    public boolean add(Movie e) {
+        if (e.getId() < IdAllocator.MIN_ID) return false;
+        synchronized (monitor(e.getId())) {
+            if (!shard(e.getId()).add(e)) return false;
+            synchronized (idAllocator) {
+                idAllocator.reserve(e.getId());
+            }
+            if (isJournaled()) journalManager.logAdd(e);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean update(Movie e) {
+        synchronized (monitor(e.getId())) {
+            if (!shard(e.getId()).update(e)) return false;
+            if (isJournaled()) journalManager.logUpdate(e);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(long id) {
+        synchronized (monitor(id)) {
+            if (!shard(id).remove(id)) return false;
+            synchronized (idAllocator) {
+                idAllocator.release(id);
+            }
+            if (isJournaled()) journalManager.logRemove(id);
+        }
+        return true;
+    }
+
+    /**
+     * Функция удаления всех элементов, меньших заданного: шарды отрезают начала своих деревьев параллельно
+     */
+    @Override
+    protected int removeLower(Movie bound, LongConsumer onRemoved) {
+        return withAllShards(() -> removeLowerLocked(bound, onRemoved));
+    }
+
+    private int removeLowerLocked(Movie bound, LongConsumer onRemoved) {
+        LongStream.Builder[] removed = new LongStream.Builder[shards.length];
+        for (int i = 0; i < shards.length; i++) removed[i] = LongStream.builder();
+        int count = IntStream.range(0, shards.length).parallel()
+                .map(i -> shards[i].removeLower(bound, removed[i]::add))
+                .sum();
+        if (count == 0) return 0;
+        synchronized (idAllocator) {
+            for (LongStream.Builder ids : removed) {
+                ids.build().forEach(id -> {
+                    idAllocator.release(id);
+                    onRemoved.accept(id);
+                });
+            }
+        }
+        if (isJournaled()) journalManager.logRemoveLower(bound);
+        return count;
+    }
+
+    @Override
+    public void clear() {
+        withAllShards(() -> {
+            Arrays.stream(shards).parallel().forEach(CollectionManager::clear);
+            synchronized (idAllocator) {
+                idAllocator.reset();
+            }
+            if (isJournaled()) journalManager.logClear();
+            return null;
+        });
+    }
+
+    @Override
+    public Movie getFirst() {
+        return Arrays.stream(shards).map(CollectionManager::getFirst).filter(Objects::nonNull)
+                .min(Comparator.naturalOrder()).orElse(null);
+    }
+
+    @Override
+    public Movie getLast() {
+        return Arrays.stream(shards).map(CollectionManager::getLast).filter(Objects::nonNull)
+                .max(Comparator.naturalOrder()).orElse(null);
+    }
+
+    @Override
+    public String toString() {
+        Set<Movie> movies = getCollection();
+        if (movies.isEmpty()) return "Коллекция пуста!";
+
+        StringBuilder info = new StringBuilder();
+        for (Movie element : movies) {
+            info.append(element + "\n\n");
+        }
+        return info.toString().trim();
+    }
+
+    /**
+     * Собирает упорядоченные результаты шардов параллельно и передает их действию в общем порядке
+     *
+     * @return количество переданных элементов
+     */
+    private int forEachMerged(Function<ConcurrentCollectionManager, List<Movie>> query, Comparator<Movie> order, Consumer<Movie> action) {
+        List<Iterator<Movie>> parts = Arrays.stream(shards).parallel().map(query).map(List::iterator).toList();
+        int count = 0;
+        for (Iterator<Movie> iterator = new MergingIterator<>(parts, order); iterator.hasNext(); count++) {
+            action.accept(iterator.next());
+        }
+        return count;
+    }
+
+    /**
+     * Ленивое слияние упорядоченных потоков шардов
+     */
+    private Stream<Movie> merged(Function<ConcurrentCollectionManager, Iterator<Movie>> query, Comparator<Movie> order) {
+        List<Iterator<Movie>> parts = Arrays.stream(shards).map(query).toList();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new MergingIterator<>(parts, order),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+}
@@ -1,8 +1,12 @@
 package org.langel;
 import commands.*;
 import managers.*;
+import utility.QueryExecutor;
 import utility.StandartConsole;
 
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Главный класс приложения для управления коллекцией фильмов.
  * 
@@ -26,7 +30,13 @@ public class Main {
      * 4. Регистрация всех доступных команд
      * 5. Запуск интерактивного режима
      * 
-     * @param args аргументы командной строки (первый аргумент - имя файла с данными)
+     * @param args аргументы командной строки (первый аргумент - имя файла с данными,
+     *             далее необязательные --compact для сохранения коллекции без форматирования
+     *             --durability=fsync|group|os для режима записи журнала изменений,
+     *             --format=json|binary для формата сохранения
+     *             --concurrent для потокобезопасного менеджера коллекции,
+     *             --shards=N для коллекции, разбитой на N шардов,
+     *             --parallelism=N и --parallel-threshold=N для числа потоков и порога параллельного обхода коллекции)
      */
     public static void main(String[] args) {
         // Создание консоли для взаимодействия с пользователем
@@ -38,11 +48,77 @@ public class Main {
             System.exit(1);
         }
         
+        // Разбор дополнительных параметров запуска
+        boolean compact = false;
+        var durability = JournalManager.Durability.FSYNC;
+        DumpManager.Format format = null;
+        boolean concurrent = false;
+        int shards = 0;
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int parallelThreshold = QueryExecutor.DEFAULT_THRESHOLD;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--compact")) {
+                compact = true;
+            } else if (args[i].startsWith("--durability=")) {
+                try {
+                    durability = JournalManager.Durability.valueOf(args[i].substring("--durability=".length()).toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    console.printError("Режим надежности журнала должен быть одним из: " + JournalManager.Durability.names());
+                }
+            } else if (args[i].equals("--concurrent")) {
+                concurrent = true;
+            } else if (args[i].startsWith("--shards=")) {
+                try {
+                    shards = Integer.parseInt(args[i].substring("--shards=".length()));
+                    if (shards < 1) throw new NumberFormatException();
+                } catch (NumberFormatException e) {
+                    shards = 0;
+                    console.printError("Количество шардов должно быть положительным числом");
+                }
+            } else if (args[i].startsWith("--parallelism=")) {
+                try {
+                    parallelism = Integer.parseInt(args[i].substring("--parallelism=".length()));
+                    if (parallelism < 1) throw new NumberFormatException();
+                } catch (NumberFormatException e) {
+                    parallelism = ForkJoinPool.getCommonPoolParallelism();
+                    console.printError("Количество потоков должно быть положительным числом");
+                }
+            } else if (args[i].startsWith("--parallel-threshold=")) {
+                try {
+                    parallelThreshold = Integer.parseInt(args[i].substring("--parallel-threshold=".length()));
+                    if (parallelThreshold < 0) throw new NumberFormatException();
+                } catch (NumberFormatException e) {
+                    parallelThreshold = QueryExecutor.DEFAULT_THRESHOLD;
+                    console.printError("Порог параллельного обхода должен быть неотрицательным числом");
+                }
+            } else if (args[i].startsWith("--format=")) {
+                try {
+                    format = DumpManager.Format.valueOf(args[i].substring("--format=".length()).toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    console.printError("Формат файла должен быть одним из: " + DumpManager.Format.names());
+                }
+            } else {
+                console.printError("Неизвестный параметр запуска: '" + args[i] + "'");
+            }
+        }
+        
         // Инициализация менеджера для работы с файлами данных
-        var dumpManager = new DumpManager(args[0], console);
+        var dumpManager = new DumpManager(args[0], console, compact, format);
+        
+        // Журнал изменений, воспроизводимый поверх последнего сохранения при загрузке
+        var journalManager = new JournalManager(args[0] + ".journal", console, durability);
         
         // Создание менеджера коллекции фильмов
-        var collectionManager = new CollectionManager(dumpManager);
+        CollectionManager collectionManager;
+        if (shards > 0) {
+            collectionManager = new ShardedCollectionManager(dumpManager, journalManager, shards);
+        } else if (concurrent) {
+            collectionManager = new ConcurrentCollectionManager(dumpManager, journalManager);
+        } else {
+            collectionManager = new CollectionManager(dumpManager, journalManager);
+        }
+        
+        collectionManager.setQueryExecutor(new QueryExecutor(parallelism, parallelThreshold));
         
         // Загрузка коллекции из файла
         collectionManager.loadCollection();
@@ -72,9 +148,36 @@ public class Main {
         commandManager.register("filter_less_than_screenwriter", new FilterLessThanScreenwriter(console, collectionManager));
         commandManager.register("print_descending", new PrintDescending(console, collectionManager));
         commandManager.register("sum_of_oscar_count", new SumOfOscarCount(console, collectionManager));
+        commandManager.register("filter_oscars_between", new FilterOscarsBetween(console, collectionManager));
+        commandManager.register("top_oscars", new TopOscars(console, collectionManager));
+        commandManager.register("nearest_movies", new NearestMovies(console, collectionManager));
+        commandManager.register("movies_in_box", new MoviesInBox(console, collectionManager));
+        commandManager.register("screenwriters_near", new ScreenwritersNear(console, collectionManager));
+        commandManager.register("nearest_screenwriter", new NearestScreenwriter(console, collectionManager));
+        commandManager.register("filter_by_genre", FilterByEnum.byGenre(console, collectionManager));
+        commandManager.register("filter_by_mpaa", FilterByEnum.byMpaa(console, collectionManager));
+        commandManager.register("count_by_genre", new CountByGenre(console, collectionManager));
+        commandManager.register("count_by_mpaa", new CountByMpaa(console, collectionManager));
+        commandManager.register("count_by_eye_color", new CountByEyeColor(console, collectionManager));
+        commandManager.register("query", new Query(console, collectionManager));
+        commandManager.register("explain", new Explain(console, collectionManager));
         
         // Создание и запуск интерактивного режима
         var runner = new Runner(console, commandManager);
-        runner.interactiveMode();
+        boolean exited = runner.interactiveMode();
+        
+        // exit завершает программу без сохранения, поэтому несохраненные изменения удаляются из журнала;
+        // если ввод оборвался, журнал остается, и изменения восстановятся при следующем запуске
+        if (exited) collectionManager.discardUnsavedChanges();
+        
+        // Ожидание фоновых сохранений и фиксация журнала перед завершением
+        if (!collectionManager.awaitSave()) {
+            console.printError("Последнее сохранение не удалось, изменения остались в журнале");
+        }
+        try {
+            journalManager.close();
+        } catch (IOException e) {
+            console.printError("Ошибка закрытия журнала: " + e.getMessage());
+        }
     }
 }
\ No newline at end of file
@@ -59,8 +59,10 @@ public class Runner {
      * Обрабатывает исключения:
      * - NoSuchElementException: отсутствие пользовательского ввода
      * - IllegalStateException: непредвиденные ошибки
+     *
+     * @return true, если работа завершена командой "exit", и false, если ввод закончился или прервался ошибкой
      */
-    public void interactiveMode() {
+    public boolean interactiveMode() {
         try {
             ExecutionResponse commandStatus;
             String[] userCommand = {"", ""};
@@ -76,7 +78,7 @@ public class Runner {
                 commandStatus = launchCommand(userCommand);
                 
                 // Проверка на выход из приложения
-                if (commandStatus.getMessage().equals("exit")) break;
+                if (commandStatus.getMessage().equals("exit")) return true;
                 
                 // Вывод результата выполнения
                 console.println(commandStatus.getMessage());
@@ -86,6 +88,7 @@ public class Runner {
         } catch (IllegalStateException exception) {
             console.printError("Непредвиденная ошибка!");
         }
+        return false;
     }
 
     /**
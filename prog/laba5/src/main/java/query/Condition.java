@@ -0,0 +1,79 @@
+package query;
+
+import moduls.Movie;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Условие запроса: поле, оператор и одно или несколько значений (для IN).
+ * Значение null допускается только с = и !=; остальные сравнения с отсутствующим значением поля ложны
+ */
+public final class Condition implements Predicate<Movie> {
+    private final Field field;
+    private final Operator operator;
+    private final List<Comparable<?>> values;
+
+    Condition(Field field, Operator operator, List<Comparable<?>> values) {
+        this.field = field;
+        this.operator = operator;
+        this.values = values;
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    /**
+     * @return значения условия: одно для сравнений, несколько для IN
+     */
+    public List<Comparable<?>> getValues() {
+        return values;
+    }
+
+    /**
+     * @return значение условия сравнения
+     */
+    public Comparable<?> getValue() {
+        return values.get(0);
+    }
+
+    @Override
+    public boolean test(Movie movie) {
+        Comparable<?> actual = field.get(movie);
+        for (Comparable<?> expected : values) {
+            if (actual == null || expected == null) {
+                if (operator == Operator.EQ || operator == Operator.IN) {
+                    if (actual == expected) return true;
+                } else if (operator == Operator.NE) {
+                    return actual != expected;
+                }
+                continue;
+            }
+            if (operator.test(compare(actual, expected))) return true;
+        }
+        return false;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compare(Comparable<?> a, Comparable<?> b) {
+        return ((Comparable) a).compareTo(b);
+    }
+
+    @Override
+    public String toString() {
+        if (operator == Operator.IN) {
+            return field + " in (" + values.stream().map(Condition::literal).collect(Collectors.joining(", ")) + ")";
+        }
+        return field + " " + operator + " " + literal(getValue());
+    }
+
+    private static String literal(Comparable<?> value) {
+        return value instanceof String ? '"' + (String) value + '"' : String.valueOf(value);
+    }
+}
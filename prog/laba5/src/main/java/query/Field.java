@@ -0,0 +1,113 @@
+package query;
+
+import moduls.Color;
+import moduls.Location;
+import moduls.Movie;
+import moduls.MovieGenre;
+import moduls.MpaaRating;
+import moduls.Person;
+
+import java.time.LocalDate;
+import java.util.function.Function;
+
+/**
+ * Поля фильма, доступные в запросах.
+ * Поле знает, как получить свое значение из фильма и как разобрать литерал своего типа;
+ * значение вложенного поля отсутствующего сценариста (или его местоположения) равно null
+ */
+public enum Field {
+    ID("id", Movie::getId, Long::valueOf),
+    NAME("name", Movie::getName, value -> value),
+    COORDINATES_X("coordinates.x", movie -> movie.getCoordinates() == null ? null : movie.getCoordinates().getX(), Integer::valueOf),
+    COORDINATES_Y("coordinates.y", movie -> movie.getCoordinates() == null ? null : movie.getCoordinates().getY(), Integer::valueOf),
+    CREATION_DATE("creationDate", Movie::getCreationDate, LocalDate::parse),
+    OSCARS_COUNT("oscarsCount", Movie::getOscarsCount, Long::valueOf),
+    GENRE("genre", Movie::getGenre, value -> MovieGenre.valueOf(value.toUpperCase())),
+    MPAA_RATING("mpaaRating", Movie::getMpaaRating, value -> MpaaRating.valueOf(value.toUpperCase())),
+    SCREENWRITER_NAME("screenwriter.name", movie -> screenwriter(movie) == null ? null : screenwriter(movie).getName(), value -> value),
+    SCREENWRITER_HEIGHT("screenwriter.height", movie -> screenwriter(movie) == null ? null : screenwriter(movie).getHeight(), Float::valueOf),
+    SCREENWRITER_EYE_COLOR("screenwriter.eyeColor", movie -> screenwriter(movie) == null ? null : screenwriter(movie).getEyeColor(),
+            value -> Color.valueOf(value.toUpperCase())),
+    SCREENWRITER_LOCATION_X("screenwriter.location.x", movie -> location(movie) == null ? null : location(movie).getX(), Double::valueOf),
+    SCREENWRITER_LOCATION_Y("screenwriter.location.y", movie -> location(movie) == null ? null : location(movie).getY(), Long::valueOf),
+    SCREENWRITER_LOCATION_Z("screenwriter.location.z", movie -> location(movie) == null ? null : location(movie).getZ(), Long::valueOf),
+    SCREENWRITER_LOCATION_NAME("screenwriter.location.name", movie -> location(movie) == null ? null : location(movie).getName(), value -> value);
+
+    private final String path;
+    private final Function<Movie, Comparable<?>> getter;
+    private final Function<String, Comparable<?>> parser;
+
+    Field(String path, Function<Movie, Comparable<?>> getter, Function<String, Comparable<?>> parser) {
+        this.path = path;
+        this.getter = getter;
+        this.parser = parser;
+    }
+
+    /**
+     * @return имя поля в запросе, например screenwriter.height
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @param movie фильм
+     * @return значение поля или null
+     */
+    public Comparable<?> get(Movie movie) {
+        return getter.apply(movie);
+    }
+
+    /**
+     * Разбирает литерал типа поля
+     *
+     * @param value литерал
+     * @return значение
+     * @throws IllegalArgumentException если литерал некорректен
+     */
+    public Comparable<?> parse(String value) {
+        try {
+            return parser.apply(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Некорректное значение '" + value + "' для поля " + path, e);
+        }
+    }
+
+    /**
+     * Находит поле по имени без учета регистра
+     *
+     * @param path имя поля
+     * @return поле или null, если такого нет
+     */
+    public static Field byPath(String path) {
+        for (Field field : values()) {
+            if (field.path.equalsIgnoreCase(path)) return field;
+        }
+        return null;
+    }
+
+    /**
+     * Возвращает список всех полей через запятую
+     * @return строка со списком полей
+     */
+    public static String names() {
+        StringBuilder nameList = new StringBuilder();
+        for (var field : values()) {
+            nameList.append(field.path).append(", ");
+        }
+        return nameList.substring(0, nameList.length() - 2);
+    }
+
+    private static Person screenwriter(Movie movie) {
+        return movie.getScreenwriter();
+    }
+
+    private static Location location(Movie movie) {
+        return movie.getScreenwriter() == null ? null : movie.getScreenwriter().getLocation();
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
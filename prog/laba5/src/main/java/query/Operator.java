@@ -0,0 +1,61 @@
+package query;
+
+/**
+ * Операторы сравнения в условиях запроса
+ */
+public enum Operator {
+    EQ("="),
+    NE("!="),
+    LT("<"),
+    LE("<="),
+    GT(">"),
+    GE(">="),
+    /** значение совпадает с одним из перечисленных */
+    IN("in");
+
+    private final String symbol;
+
+    Operator(String symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * @return запись оператора в запросе
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Находит оператор сравнения по записи (IN записывается словом и здесь не ищется)
+     *
+     * @param symbol запись оператора
+     * @return оператор или null
+     */
+    public static Operator bySymbol(String symbol) {
+        for (Operator operator : values()) {
+            if (operator != IN && operator.symbol.equals(symbol)) return operator;
+        }
+        return null;
+    }
+
+    /**
+     * @param cmp результат compareTo значения поля с литералом
+     * @return true, если сравнение выполняется
+     */
+    boolean test(int cmp) {
+        return switch (this) {
+            case EQ, IN -> cmp == 0;
+            case NE -> cmp != 0;
+            case LT -> cmp < 0;
+            case LE -> cmp <= 0;
+            case GT -> cmp > 0;
+            case GE -> cmp >= 0;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return symbol;
+    }
+}
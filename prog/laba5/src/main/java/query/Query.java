@@ -0,0 +1,68 @@
+package query;
+
+import moduls.Movie;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Разобранный запрос: условия, соединенные через and, необязательная сортировка и ограничение количества
+ */
+public final class Query {
+    private final List<Condition> conditions;
+    private final Field orderBy;
+    private final boolean descending;
+    private final Long limit;
+
+    Query(List<Condition> conditions, Field orderBy, boolean descending, Long limit) {
+        this.conditions = List.copyOf(conditions);
+        this.orderBy = orderBy;
+        this.descending = descending;
+        this.limit = limit;
+    }
+
+    public List<Condition> getConditions() {
+        return conditions;
+    }
+
+    /**
+     * @return поле сортировки или null, если результат выводится в естественном порядке
+     */
+    public Field getOrderBy() {
+        return orderBy;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * @return наибольшее количество результатов или null, если ограничения нет
+     */
+    public Long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Порядок результата: по полю сортировки (отсутствующие значения первыми), при равенстве - естественный
+     *
+     * @return компаратор результата
+     */
+    public Comparator<Movie> comparator() {
+        if (orderBy == null) return Comparator.naturalOrder();
+        Comparator<Movie> byField = Comparator.comparing(orderBy::get, Comparator.nullsFirst(Condition::compare));
+        return (descending ? byField.reversed() : byField).thenComparing(Comparator.naturalOrder());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder query = new StringBuilder();
+        if (!conditions.isEmpty()) {
+            query.append("where ").append(conditions.stream().map(Condition::toString).collect(Collectors.joining(" and ")));
+        }
+        if (orderBy != null) query.append(query.isEmpty() ? "" : " ").append("order by ").append(orderBy).append(descending ? " desc" : " asc");
+        if (limit != null) query.append(query.isEmpty() ? "" : " ").append("limit ").append(limit);
+        return query.toString();
+    }
+}
@@ -0,0 +1,163 @@
+package query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Разбор запроса вида
+ * <pre>
+ * [where условие {and условие}] [order by поле [asc|desc]] [limit n]
+ * условие: поле (= | != | &lt; | &lt;= | &gt; | &gt;=) значение | поле in (значение {, значение})
+ * </pre>
+ * Ключевые слова не зависят от регистра; строки с пробелами записываются в кавычках,
+ * null без кавычек означает отсутствующее значение
+ */
+public final class QueryParser {
+    /**
+     * Ошибка разбора запроса
+     */
+    public static class QueryException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public QueryException(String message) {
+            super(message);
+        }
+    }
+
+    private record Token(String text, boolean quoted) {
+        boolean is(String keyword) {
+            return !quoted && text.equalsIgnoreCase(keyword);
+        }
+    }
+
+    private final List<Token> tokens;
+    private int position;
+
+    private QueryParser(List<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * @param query текст запроса
+     * @return разобранный запрос
+     * @throws QueryException если запрос некорректен
+     */
+    public static Query parse(String query) throws QueryException {
+        return new QueryParser(tokenize(query)).query();
+    }
+
+    private Query query() throws QueryException {
+        List<Condition> conditions = new ArrayList<>();
+        if (accept("where")) {
+            conditions.add(condition());
+            while (accept("and")) conditions.add(condition());
+        }
+        Field orderBy = null;
+        boolean descending = false;
+        if (accept("order")) {
+            expect("by");
+            orderBy = field();
+            if (accept("desc")) descending = true;
+            else accept("asc");
+        }
+        Long limit = null;
+        if (accept("limit")) {
+            String value = next("количество").text();
+            try {
+                limit = Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                throw new QueryException("Некорректное ограничение количества: " + value);
+            }
+            if (limit < 0) throw new QueryException("Ограничение количества не может быть отрицательным");
+        }
+        if (position < tokens.size()) {
+            throw new QueryException("Неожиданное '" + tokens.get(position).text() + "': ожидались where, and, order by или limit");
+        }
+        return new Query(conditions, orderBy, descending, limit);
+    }
+
+    private Condition condition() throws QueryException {
+        Field field = field();
+        if (accept("in")) {
+            expect("(");
+            List<Comparable<?>> values = new ArrayList<>();
+            do {
+                values.add(value(field, false));
+            } while (accept(","));
+            expect(")");
+            return new Condition(field, Operator.IN, values);
+        }
+        Token token = next("оператор");
+        Operator operator = token.quoted() ? null : Operator.bySymbol(token.text());
+        if (operator == null) throw new QueryException("Неизвестный оператор: " + token.text());
+        return new Condition(field, operator, Collections.singletonList(value(field, operator == Operator.EQ || operator == Operator.NE)));
+    }
+
+    private Field field() throws QueryException {
+        Token token = next("поле");
+        Field field = token.quoted() ? null : Field.byPath(token.text());
+        if (field == null) throw new QueryException("Неизвестное поле: " + token.text() + " (доступны " + Field.names() + ")");
+        return field;
+    }
+
+    private Comparable<?> value(Field field, boolean nullable) throws QueryException {
+        Token token = next("значение");
+        if (token.is("null")) {
+            if (!nullable) throw new QueryException("null можно сравнивать только через = и !=");
+            return null;
+        }
+        try {
+            return field.parse(token.text());
+        } catch (IllegalArgumentException e) {
+            throw new QueryException(e.getMessage());
+        }
+    }
+
+    private boolean accept(String keyword) {
+        if (position < tokens.size() && tokens.get(position).is(keyword)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String keyword) throws QueryException {
+        if (!accept(keyword)) {
+            throw new QueryException("Ожидалось '" + keyword + "'" + (position < tokens.size() ? ", получено '" + tokens.get(position).text() + "'" : ""));
+        }
+    }
+
+    private Token next(String expected) throws QueryException {
+        if (position >= tokens.size()) throw new QueryException("Запрос оборвался: ожидалось " + expected);
+        return tokens.get(position++);
+    }
+
+    private static List<Token> tokenize(String query) throws QueryException {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '"' || c == '\'') {
+                int end = query.indexOf(c, i + 1);
+                if (end < 0) throw new QueryException("Незакрытая кавычка");
+                tokens.add(new Token(query.substring(i + 1, end), true));
+                i = end + 1;
+            } else if (c == '(' || c == ')' || c == ',') {
+                tokens.add(new Token(String.valueOf(c), false));
+                i++;
+            } else if (c == '=' || c == '!' || c == '<' || c == '>') {
+                int end = i + 1 < query.length() && query.charAt(i + 1) == '=' ? i + 2 : i + 1;
+                tokens.add(new Token(query.substring(i, end), false));
+                i = end;
+            } else {
+                int start = i;
+                while (i < query.length() && !Character.isWhitespace(query.charAt(i)) && "\"'(),=!<>".indexOf(query.charAt(i)) < 0) i++;
+                tokens.add(new Token(query.substring(start, i), false));
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,189 @@
+package query;
+
+import managers.CollectionManager;
+import moduls.Color;
+import moduls.Movie;
+import moduls.MovieGenre;
+import moduls.MpaaRating;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * План выполнения запроса: способ доступа к коллекции, условия, проверяемые после него,
+ * нужна ли сортировка, и оценки, по которым план выбран
+ */
+public final class QueryPlan {
+    /**
+     * Способы доступа к коллекции
+     */
+    public enum Access {
+        /** один элемент из словаря по id */
+        ID_LOOKUP,
+        /** элементы из битовых индексов по жанру, рейтингу и цвету глаз сценариста */
+        ENUM_BITMAP,
+        /** отрезок дерева коллекции по диапазону oscarsCount */
+        OSCARS_RANGE,
+        /** обход по убыванию id с остановкой, как только набран limit */
+        ID_ORDER,
+        /** параллельный обход всей коллекции */
+        FULL_SCAN
+    }
+
+    /**
+     * размер пачки, которой обходится порядок по id, если ее нельзя оценить по limit
+     */
+    private static final long ID_ORDER_BATCH = 256;
+
+    private final Query query;
+    private final Access access;
+    private final List<Condition> residual;
+    private final boolean sorted;
+    private final double estimatedRows;
+    private final double cost;
+    private final List<String> alternatives;
+
+    private long id;
+    private Set<MovieGenre> genres;
+    private Set<MpaaRating> ratings;
+    private Set<Color> eyeColors;
+    private long oscarsFrom;
+    private long oscarsTo;
+
+    QueryPlan(Query query, Access access, List<Condition> covered, boolean sorted, double estimatedRows, double cost) {
+        this.query = query;
+        this.access = access;
+        this.residual = query.getConditions().stream().filter(condition -> !covered.contains(condition)).toList();
+        this.sorted = sorted;
+        this.estimatedRows = estimatedRows;
+        this.cost = cost;
+        this.alternatives = new ArrayList<>();
+    }
+
+    QueryPlan id(long id) {
+        this.id = id;
+        return this;
+    }
+
+    QueryPlan enums(Set<MovieGenre> genres, Set<MpaaRating> ratings, Set<Color> eyeColors) {
+        this.genres = genres;
+        this.ratings = ratings;
+        this.eyeColors = eyeColors;
+        return this;
+    }
+
+    QueryPlan oscars(long from, long to) {
+        this.oscarsFrom = from;
+        this.oscarsTo = to;
+        return this;
+    }
+
+    void addAlternative(QueryPlan plan) {
+        alternatives.add(plan.access + ": " + String.format("%.1f", plan.cost));
+    }
+
+    public Access getAccess() {
+        return access;
+    }
+
+    public double getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * Выполняет план
+     *
+     * @param collectionManager менеджер коллекции
+     * @return подходящие элементы в порядке запроса, не больше limit
+     */
+    public List<Movie> execute(CollectionManager collectionManager) {
+        Predicate<Movie> filter = movie -> {
+            for (Condition condition : residual) {
+                if (!condition.test(movie)) return false;
+            }
+            return true;
+        };
+        long limit = query.getLimit() == null ? Long.MAX_VALUE : query.getLimit();
+        List<Movie> rows = switch (access) {
+            case ID_LOOKUP -> {
+                Movie movie = collectionManager.getById(id);
+                yield movie != null && filter.test(movie) ? List.of(movie) : List.of();
+            }
+            case ENUM_BITMAP -> {
+                List<Movie> matching = new ArrayList<>();
+                collectionManager.forEachMatching(genres, ratings, eyeColors, movie -> {
+                    if (filter.test(movie)) matching.add(movie);
+                });
+                yield matching;
+            }
+            case OSCARS_RANGE -> {
+                Stream<Movie> range = collectionManager.streamOscarsBetween(oscarsFrom, oscarsTo).filter(filter);
+                yield (sorted ? range : range.limit(limit)).toList();
+            }
+            case ID_ORDER -> byIdDescending(collectionManager, filter, limit);
+            case FULL_SCAN -> collectionManager.filter(filter);
+        };
+        if (sorted && rows.size() > 1) {
+            rows = new ArrayList<>(rows);
+            rows.sort(query.comparator());
+        }
+        return rows.size() > limit ? rows.subList(0, (int) limit) : rows;
+    }
+
+    /**
+     * Обходит коллекцию по убыванию id пачками, пока не наберется limit подходящих элементов;
+     * каждая следующая пачка вдвое больше предыдущей
+     */
+    private static List<Movie> byIdDescending(CollectionManager collectionManager, Predicate<Movie> filter, long limit) {
+        List<Movie> rows = new ArrayList<>();
+        long offset = 0;
+        long batch = limit == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(ID_ORDER_BATCH, limit);
+        while (rows.size() < limit) {
+            long visited = collectionManager.forEachByIdDescending(offset, batch, movie -> {
+                if (movie != null && rows.size() < limit && filter.test(movie)) rows.add(movie);
+            });
+            if (visited < batch) break;
+            offset += visited;
+            batch = batch > Long.MAX_VALUE / 2 ? Long.MAX_VALUE : batch * 2;
+        }
+        return rows;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder plan = new StringBuilder();
+        plan.append("Запрос: ").append(query.toString().isEmpty() ? "(все элементы)" : query).append('\n');
+        plan.append("Способ доступа: ").append(access);
+        switch (access) {
+            case ID_LOOKUP -> plan.append(" (id = ").append(id).append(')');
+            case ENUM_BITMAP -> plan.append(" (").append(enumSelection()).append(')');
+            case OSCARS_RANGE -> plan.append(" (oscarsCount от ").append(oscarsFrom).append(" до ").append(oscarsTo).append(')');
+            default -> { }
+        }
+        plan.append('\n');
+        plan.append("Ожидаемое количество строк: ").append(String.format("%.1f", estimatedRows)).append('\n');
+        plan.append("Оценка стоимости: ").append(String.format("%.1f", cost)).append('\n');
+        plan.append("Проверяемые после доступа условия: ")
+                .append(residual.isEmpty() ? "нет" : residual.stream().map(Condition::toString).collect(Collectors.joining(" and "))).append('\n');
+        plan.append("Сортировка: ").append(sorted ? (query.getOrderBy() == null ? "естественный порядок" : query.getOrderBy() + (query.isDescending() ? " desc" : " asc")) : "не нужна").append('\n');
+        plan.append("Ограничение: ").append(query.getLimit() == null ? "нет" : query.getLimit()).append('\n');
+        plan.append("Рассмотренные способы: ").append(String.join(", ", alternatives));
+        return plan.toString();
+    }
+
+    private String enumSelection() {
+        List<String> parts = new ArrayList<>();
+        if (genres != null) parts.add("genre in " + genres);
+        if (ratings != null) parts.add("mpaaRating in " + ratings);
+        if (eyeColors != null) parts.add("screenwriter.eyeColor in " + eyeColors);
+        return String.join(", ", parts);
+    }
+}
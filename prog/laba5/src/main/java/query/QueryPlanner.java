@@ -0,0 +1,235 @@
+package query;
+
+import managers.CollectionManager;
+import moduls.Color;
+import moduls.MovieGenre;
+import moduls.MpaaRating;
+import utility.CollectionAggregates;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Выбор способа выполнения запроса по оценке стоимости.
+ * <p>
+ * Стоимость считается в просмотренных элементах: поиск по id стоит 1, отрезок дерева по oscarsCount -
+ * log n на поиск начала плюс элементы отрезка, битовые индексы - n/64 слов на пересечение плюс выбранные
+ * элементы, обход по убыванию id - элементы до набора limit, полный обход - n. Если способ не дает
+ * нужного порядка, добавляется сортировка m log m. Количество строк оценивается по агрегатам
+ * коллекции (точные счетчики жанров и рейтингов, равномерное распределение oscarsCount между
+ * минимумом и максимумом), для остальных полей - постоянными долями
+ */
+public final class QueryPlanner {
+    /**
+     * доля элементов, проходящих сравнение на равенство по полю без статистики
+     */
+    private static final double EQUALITY_SELECTIVITY = 0.1;
+    /**
+     * доля элементов, проходящих сравнение на больше-меньше по полю без статистики
+     */
+    private static final double RANGE_SELECTIVITY = 1.0 / 3;
+    /**
+     * битов в слове битового индекса
+     */
+    private static final double BITMAP_WORD = 64;
+
+    private QueryPlanner() {
+    }
+
+    /**
+     * Строит планы для всех подходящих способов доступа и выбирает самый дешевый
+     *
+     * @param query             запрос
+     * @param collectionManager менеджер коллекции
+     * @return выбранный план
+     */
+    public static QueryPlan plan(Query query, CollectionManager collectionManager) {
+        CollectionAggregates aggregates = collectionManager.getAggregates();
+        double n = aggregates.getCount();
+        double rows = n;
+        for (Condition condition : query.getConditions()) rows *= selectivity(condition, aggregates);
+        boolean naturalOrder = query.getOrderBy() == null || query.getOrderBy() == Field.OSCARS_COUNT && !query.isDescending();
+        Long limit = query.getLimit();
+
+        List<QueryPlan> candidates = new ArrayList<>();
+        for (Condition condition : query.getConditions()) {
+            if (condition.getField() == Field.ID && condition.getOperator() == Operator.EQ && condition.getValue() != null) {
+                candidates.add(new QueryPlan(query, QueryPlan.Access.ID_LOOKUP, List.of(condition), false, Math.min(rows, 1), 1)
+                        .id((Long) condition.getValue()));
+                break;
+            }
+        }
+
+        QueryPlan range = oscarsRange(query, aggregates, n, naturalOrder);
+        if (range != null) candidates.add(range);
+
+        QueryPlan bitmap = enumBitmap(query, collectionManager, aggregates, n);
+        if (bitmap != null) candidates.add(bitmap);
+
+        if (query.getOrderBy() == Field.ID && query.isDescending()) {
+            double visited = limit == null ? n : Math.min(n, limit / Math.max(rows / Math.max(n, 1), 1 / Math.max(n, 1)));
+            candidates.add(new QueryPlan(query, QueryPlan.Access.ID_ORDER, List.of(), false, rows, visited));
+        }
+
+        candidates.add(new QueryPlan(query, QueryPlan.Access.FULL_SCAN, List.of(), !naturalOrder, rows,
+                n + (naturalOrder ? 0 : sortCost(rows))));
+
+        QueryPlan best = candidates.get(0);
+        for (QueryPlan candidate : candidates) {
+            if (candidate.getCost() < best.getCost()) best = candidate;
+        }
+        for (QueryPlan candidate : candidates) best.addAlternative(candidate);
+        return best;
+    }
+
+    /**
+     * План по отрезку дерева: границы oscarsCount пересекаются по всем сравнениям с этим полем;
+     * IN сужает отрезок до своих минимума и максимума, но проверяется и после доступа
+     */
+    private static QueryPlan oscarsRange(Query query, CollectionAggregates aggregates, double n, boolean naturalOrder) {
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        boolean bounded = false;
+        List<Condition> covered = new ArrayList<>();
+        double residual = 1;
+        for (Condition condition : query.getConditions()) {
+            if (condition.getField() != Field.OSCARS_COUNT || condition.getValue() == null) {
+                residual *= selectivity(condition, aggregates);
+                continue;
+            }
+            long value = (Long) condition.getValue();
+            switch (condition.getOperator()) {
+                case EQ -> {
+                    from = Math.max(from, value);
+                    to = Math.min(to, value);
+                }
+                case GE -> from = Math.max(from, value);
+                case LE -> to = Math.min(to, value);
+                case GT -> {
+                    if (value == Long.MAX_VALUE) to = Long.MIN_VALUE;
+                    else from = Math.max(from, value + 1);
+                }
+                case LT -> {
+                    if (value == Long.MIN_VALUE) from = Long.MAX_VALUE;
+                    else to = Math.min(to, value - 1);
+                }
+                case IN -> {
+                    from = Math.max(from, condition.getValues().stream().mapToLong(v -> (Long) v).min().orElseThrow());
+                    to = Math.min(to, condition.getValues().stream().mapToLong(v -> (Long) v).max().orElseThrow());
+                    residual *= selectivity(condition, aggregates);
+                    bounded = true;
+                    continue;
+                }
+                case NE -> {
+                    residual *= selectivity(condition, aggregates);
+                    continue;
+                }
+            }
+            covered.add(condition);
+            bounded = true;
+        }
+        if (!bounded) return null;
+        double scanned = n * rangeFraction(aggregates, from, to);
+        double rows = scanned * residual;
+        double cost = Math.log(n + 1) / Math.log(2);
+        if (naturalOrder) {
+            // отрезок уже в нужном порядке: обход останавливается, как только набран limit
+            cost += query.getLimit() == null ? scanned : Math.min(scanned, query.getLimit() / Math.max(residual, 1 / Math.max(n, 1)));
+        } else {
+            cost += scanned + sortCost(rows);
+        }
+        return new QueryPlan(query, QueryPlan.Access.OSCARS_RANGE, covered, !naturalOrder, rows, cost).oscars(from, to);
+    }
+
+    /**
+     * План по битовым индексам: допустимые значения каждого поля пересекаются по всем его условиям = и IN.
+     * Количество выбранных элементов считается точно по индексам, а порядок строк индекса произвольный,
+     * поэтому результат всегда сортируется
+     */
+    private static QueryPlan enumBitmap(Query query, CollectionManager collectionManager, CollectionAggregates aggregates, double n) {
+        Set<MovieGenre> genres = null;
+        Set<MpaaRating> ratings = null;
+        Set<Color> eyeColors = null;
+        List<Condition> covered = new ArrayList<>();
+        double residual = 1;
+        for (Condition condition : query.getConditions()) {
+            boolean indexable = (condition.getOperator() == Operator.EQ || condition.getOperator() == Operator.IN)
+                    && condition.getValue() != null;
+            switch (indexable ? condition.getField() : Field.ID) {
+                case GENRE -> genres = restrict(genres, MovieGenre.class, condition);
+                case MPAA_RATING -> ratings = restrict(ratings, MpaaRating.class, condition);
+                case SCREENWRITER_EYE_COLOR -> eyeColors = restrict(eyeColors, Color.class, condition);
+                default -> {
+                    residual *= selectivity(condition, aggregates);
+                    continue;
+                }
+            }
+            covered.add(condition);
+        }
+        if (covered.isEmpty()) return null;
+        double selected = collectionManager.countMatching(genres, ratings, eyeColors);
+        double rows = selected * residual;
+        return new QueryPlan(query, QueryPlan.Access.ENUM_BITMAP, covered, true, rows, n / BITMAP_WORD + selected + sortCost(rows))
+                .enums(genres, ratings, eyeColors);
+    }
+
+    private static <E extends Enum<E>> Set<E> restrict(Set<E> allowed, Class<E> type, Condition condition) {
+        Set<E> values = EnumSet.noneOf(type);
+        for (Comparable<?> value : condition.getValues()) values.add(type.cast(value));
+        if (allowed != null) values.retainAll(allowed);
+        return values;
+    }
+
+    /**
+     * Доля элементов, проходящих условие
+     */
+    private static double selectivity(Condition condition, CollectionAggregates aggregates) {
+        double n = Math.max(aggregates.getCount(), 1);
+        Operator operator = condition.getOperator();
+        if (condition.getValue() == null) {
+            return operator == Operator.NE ? 1 - EQUALITY_SELECTIVITY : EQUALITY_SELECTIVITY;
+        }
+        double equal = switch (condition.getField()) {
+            case ID -> condition.getValues().size() / n;
+            case GENRE -> condition.getValues().stream().mapToLong(v -> aggregates.getGenreCount((MovieGenre) v)).sum() / n;
+            case MPAA_RATING -> condition.getValues().stream().mapToLong(v -> aggregates.getRatingCount((MpaaRating) v)).sum() / n;
+            case OSCARS_COUNT -> condition.getValues().stream().mapToDouble(v -> rangeFraction(aggregates, (Long) v, (Long) v)).sum();
+            default -> Math.min(1, condition.getValues().size() * EQUALITY_SELECTIVITY);
+        };
+        return switch (operator) {
+            case EQ, IN -> Math.min(1, equal);
+            case NE -> 1 - Math.min(1, equal);
+            case LT, LE, GT, GE -> condition.getField() == Field.OSCARS_COUNT
+                    ? oscarsComparison(aggregates, operator, (Long) condition.getValue())
+                    : RANGE_SELECTIVITY;
+        };
+    }
+
+    private static double oscarsComparison(CollectionAggregates aggregates, Operator operator, long value) {
+        return switch (operator) {
+            case LT -> value == Long.MIN_VALUE ? 0 : rangeFraction(aggregates, Long.MIN_VALUE, value - 1);
+            case LE -> rangeFraction(aggregates, Long.MIN_VALUE, value);
+            case GT -> value == Long.MAX_VALUE ? 0 : rangeFraction(aggregates, value + 1, Long.MAX_VALUE);
+            default -> rangeFraction(aggregates, value, Long.MAX_VALUE);
+        };
+    }
+
+    /**
+     * Доля элементов с oscarsCount в [from, to] при равномерном распределении между минимумом и максимумом
+     */
+    private static double rangeFraction(CollectionAggregates aggregates, long from, long to) {
+        Long min = aggregates.getOscarsMin();
+        Long max = aggregates.getOscarsMax();
+        if (min == null || max == null) return 0;
+        double lower = Math.max(from, min);
+        double upper = Math.min(to, max);
+        if (lower > upper) return 0;
+        return (upper - lower + 1) / ((double) max - min + 1);
+    }
+
+    private static double sortCost(double rows) {
+        return rows > 1 ? rows * Math.log(rows) / Math.log(2) : 0;
+    }
+}
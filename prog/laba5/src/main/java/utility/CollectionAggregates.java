@@ -0,0 +1,194 @@
+package utility;
+
+import moduls.Movie;
+import moduls.MovieGenre;
+import moduls.MpaaRating;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Агрегаты коллекции, обновляемые при каждом изменении.
+ * Хранит количество элементов, сумму, минимум и максимум oscarsCount и количество элементов
+ * по жанрам и рейтингам MPAA, так что чтение любого значения не требует обхода коллекции.
+ */
+public class CollectionAggregates {
+    /**
+     * количество элементов
+     */
+    private long count;
+    /**
+     * сумма oscarsCount
+     */
+    private long oscarsSum;
+    /**
+     * oscarsCount -> количество элементов с таким значением; нужен, чтобы минимум и максимум
+     * оставались верными после удаления
+     */
+    private final TreeMap<Long, Long> oscars = new TreeMap<>();
+    /**
+     * количество элементов по порядковому номеру жанра
+     */
+    private final long[] genres = new long[MovieGenre.values().length];
+    /**
+     * количество элементов по порядковому номеру рейтинга
+     */
+    private final long[] ratings = new long[MpaaRating.values().length];
+
+    /**
+     * Пересчитывает агрегаты с нуля
+     *
+     * @param movies элементы коллекции
+     * @return агрегаты по всем элементам
+     */
+    public static CollectionAggregates of(Iterable<Movie> movies) {
+        var aggregates = new CollectionAggregates();
+        for (Movie movie : movies) aggregates.add(movie);
+        return aggregates;
+    }
+
+    /**
+     * Создает снимок агрегатов для чтения.
+     * Гистограмма oscarsCount в снимке сокращается до крайних значений: этого достаточно для минимума и максимума,
+     * а копирование не зависит от числа различных значений
+     *
+     * @return независимая копия агрегатов
+     */
+    public CollectionAggregates snapshot() {
+        var copy = new CollectionAggregates();
+        copy.count = count;
+        copy.oscarsSum = oscarsSum;
+        if (!oscars.isEmpty()) {
+            copy.oscars.put(oscars.firstKey(), 1L);
+            copy.oscars.put(oscars.lastKey(), 1L);
+        }
+        System.arraycopy(genres, 0, copy.genres, 0, genres.length);
+        System.arraycopy(ratings, 0, copy.ratings, 0, ratings.length);
+        return copy;
+    }
+
+    /**
+     * Учитывает добавленный элемент
+     *
+     * @param movie элемент
+     */
+    public void add(Movie movie) {
+        count++;
+        oscarsSum += movie.getOscarsCount();
+        oscars.merge(movie.getOscarsCount(), 1L, Long::sum);
+        if (movie.getGenre() != null) genres[movie.getGenre().ordinal()]++;
+        if (movie.getMpaaRating() != null) ratings[movie.getMpaaRating().ordinal()]++;
+    }
+
+    /**
+     * Учитывает удаленный элемент
+     *
+     * @param movie элемент
+     */
+    public void remove(Movie movie) {
+        count--;
+        oscarsSum -= movie.getOscarsCount();
+        oscars.computeIfPresent(movie.getOscarsCount(), (value, n) -> n == 1 ? null : n - 1);
+        if (movie.getGenre() != null) genres[movie.getGenre().ordinal()]--;
+        if (movie.getMpaaRating() != null) ratings[movie.getMpaaRating().ordinal()]--;
+    }
+
+    /**
+     * Добавляет агрегаты другой, непересекающейся части коллекции (например, шарда)
+     *
+     * @param other агрегаты части коллекции
+     */
+    public void merge(CollectionAggregates other) {
+        count += other.count;
+        oscarsSum += other.oscarsSum;
+        other.oscars.forEach((oscarsCount, n) -> oscars.merge(oscarsCount, n, Long::sum));
+        for (int i = 0; i < genres.length; i++) genres[i] += other.genres[i];
+        for (int i = 0; i < ratings.length; i++) ratings[i] += other.ratings[i];
+    }
+
+    /**
+     * Сбрасывает все значения
+     */
+    public void reset() {
+        count = 0;
+        oscarsSum = 0;
+        oscars.clear();
+        Arrays.fill(genres, 0);
+        Arrays.fill(ratings, 0);
+    }
+
+    /**
+     * @return количество элементов
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return сумма oscarsCount
+     */
+    public long getOscarsSum() {
+        return oscarsSum;
+    }
+
+    /**
+     * @return наименьший oscarsCount или null, если коллекция пуста
+     */
+    public Long getOscarsMin() {
+        return oscars.isEmpty() ? null : oscars.firstKey();
+    }
+
+    /**
+     * @return наибольший oscarsCount или null, если коллекция пуста
+     */
+    public Long getOscarsMax() {
+        return oscars.isEmpty() ? null : oscars.lastKey();
+    }
+
+    /**
+     * @param genre жанр
+     * @return количество элементов с этим жанром
+     */
+    public long getGenreCount(MovieGenre genre) {
+        return genres[genre.ordinal()];
+    }
+
+    /**
+     * @param rating рейтинг
+     * @return количество элементов с этим рейтингом
+     */
+    public long getRatingCount(MpaaRating rating) {
+        return ratings[rating.ordinal()];
+    }
+
+    /**
+     * @return количество элементов по жанрам
+     */
+    public Map<MovieGenre, Long> getGenreCounts() {
+        Map<MovieGenre, Long> counts = new EnumMap<>(MovieGenre.class);
+        for (MovieGenre genre : MovieGenre.values()) counts.put(genre, genres[genre.ordinal()]);
+        return counts;
+    }
+
+    /**
+     * @return количество элементов по рейтингам
+     */
+    public Map<MpaaRating, Long> getRatingCounts() {
+        Map<MpaaRating, Long> counts = new EnumMap<>(MpaaRating.class);
+        for (MpaaRating rating : MpaaRating.values()) counts.put(rating, ratings[rating.ordinal()]);
+        return counts;
+    }
+
+    /**
+     * Сравнивает агрегаты с другими, например пересчитанными с нуля
+     *
+     * @param other другие агрегаты
+     * @return true, если все значения совпадают
+     */
+    public boolean matches(CollectionAggregates other) {
+        return count == other.count && oscarsSum == other.oscarsSum && oscars.equals(other.oscars)
+                && Arrays.equals(genres, other.genres) && Arrays.equals(ratings, other.ratings);
+    }
+}
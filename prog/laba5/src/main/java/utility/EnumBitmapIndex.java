@@ -0,0 +1,153 @@
+package utility;
+
+import moduls.Color;
+import moduls.Movie;
+import moduls.MovieGenre;
+import moduls.MpaaRating;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Битовые индексы по жанру, рейтингу MPAA и цвету глаз сценариста.
+ * <p>
+ * Каждому элементу назначается плотный номер строки; освободившиеся номера используются повторно,
+ * поэтому битовые множества не разрастаются при удалениях. Номер строки хранит вызывающий код
+ * (менеджер коллекции - меткой в словаре id) и передает его при удалении. Для каждой константы
+ * перечисления хранится BitSet строк с этим значением, и запросы сводятся к OR внутри одного поля,
+ * AND между полями и cardinality().
+ */
+public class EnumBitmapIndex {
+    /**
+     * элементы по номеру строки
+     */
+    private Movie[] rows = new Movie[16];
+    /**
+     * занятые строки
+     */
+    private final BitSet live = new BitSet();
+    /**
+     * количество когда-либо выданных строк
+     */
+    private int highWater;
+    /**
+     * освобожденные номера строк
+     */
+    private int[] freeRows = new int[16];
+    private int freeCount;
+
+    private final EnumMap<MovieGenre, BitSet> genres = bitsets(MovieGenre.class);
+    private final EnumMap<MpaaRating, BitSet> ratings = bitsets(MpaaRating.class);
+    private final EnumMap<Color, BitSet> eyeColors = bitsets(Color.class);
+
+    /**
+     * Добавляет элемент в индекс
+     *
+     * @param movie элемент
+     * @return номер строки элемента
+     */
+    public int add(Movie movie) {
+        int row;
+        if (freeCount > 0) {
+            row = freeRows[--freeCount];
+        } else {
+            row = highWater++;
+            if (row == rows.length) rows = Arrays.copyOf(rows, rows.length << 1);
+        }
+        rows[row] = movie;
+        live.set(row);
+        if (movie.getGenre() != null) genres.get(movie.getGenre()).set(row);
+        if (movie.getMpaaRating() != null) ratings.get(movie.getMpaaRating()).set(row);
+        Color eyeColor = eyeColor(movie);
+        if (eyeColor != null) eyeColors.get(eyeColor).set(row);
+        return row;
+    }
+
+    /**
+     * Удаляет элемент из индекса
+     *
+     * @param row   номер строки, полученный при добавлении
+     * @param movie элемент
+     */
+    public void remove(int row, Movie movie) {
+        assert rows[row] == movie : "Строка " + row + " занята другим элементом";
+        rows[row] = null;
+        live.clear(row);
+        if (movie.getGenre() != null) genres.get(movie.getGenre()).clear(row);
+        if (movie.getMpaaRating() != null) ratings.get(movie.getMpaaRating()).clear(row);
+        Color eyeColor = eyeColor(movie);
+        if (eyeColor != null) eyeColors.get(eyeColor).clear(row);
+        if (freeCount == freeRows.length) freeRows = Arrays.copyOf(freeRows, freeRows.length << 1);
+        freeRows[freeCount++] = row;
+    }
+
+    /**
+     * Выбирает строки по значениям полей.
+     * Внутри одного поля значения объединяются (OR), между полями - пересекаются (AND);
+     * null вместо набора значений означает, что поле не ограничено
+     *
+     * @param genres    допустимые жанры или null
+     * @param ratings   допустимые рейтинги или null
+     * @param eyeColors допустимые цвета глаз сценариста или null
+     * @return битовое множество подходящих строк
+     */
+    public BitSet select(Set<MovieGenre> genres, Set<MpaaRating> ratings, Set<Color> eyeColors) {
+        BitSet result = (BitSet) live.clone();
+        if (genres != null) result.and(union(this.genres, genres));
+        if (ratings != null) result.and(union(this.ratings, ratings));
+        if (eyeColors != null) result.and(union(this.eyeColors, eyeColors));
+        return result;
+    }
+
+    /**
+     * Обходит элементы выбранных строк в порядке номеров строк
+     *
+     * @param selection битовое множество строк
+     * @param action    действие над элементом
+     */
+    public void forEach(BitSet selection, Consumer<Movie> action) {
+        for (int row = selection.nextSetBit(0); row >= 0; row = selection.nextSetBit(row + 1)) {
+            action.accept(rows[row]);
+        }
+    }
+
+    /**
+     * @return количество элементов по цвету глаз сценариста (фильмы без сценариста не учитываются)
+     */
+    public Map<Color, Integer> countByEyeColor() {
+        return cardinalities(Color.class, eyeColors);
+    }
+
+    /**
+     * @return примерный объем памяти индекса в байтах
+     */
+    public long memoryBytes() {
+        long bytes = (long) rows.length * Integer.BYTES + (long) freeRows.length * Integer.BYTES + live.size() / 8;
+        for (BitSet bits : genres.values()) bytes += bits.size() / 8;
+        for (BitSet bits : ratings.values()) bytes += bits.size() / 8;
+        for (BitSet bits : eyeColors.values()) bytes += bits.size() / 8;
+        return bytes;
+    }
+
+    private static Color eyeColor(Movie movie) {
+        return movie.getScreenwriter() == null ? null : movie.getScreenwriter().getEyeColor();
+    }
+
+    private static <E extends Enum<E>> EnumMap<E, BitSet> bitsets(Class<E> type) {
+        EnumMap<E, BitSet> map = new EnumMap<>(type);
+        for (E constant : type.getEnumConstants()) map.put(constant, new BitSet());
+        return map;
+    }
+
+    private static <E extends Enum<E>> BitSet union(EnumMap<E, BitSet> index, Set<E> values) {
+        BitSet result = new BitSet();
+        for (E value : values) result.or(index.get(value));
+        return result;
+    }
+
+    private static <E extends Enum<E>> Map<E, Integer> cardinalities(Class<E> type, EnumMap<E, BitSet> index) {
+        Map<E, Integer> counts = new EnumMap<>(type);
+        for (var entry : index.entrySet()) counts.put(entry.getKey(), entry.getValue().cardinality());
+        return counts;
+    }
+}
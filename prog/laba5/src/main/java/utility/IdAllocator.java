@@ -0,0 +1,150 @@
+package utility;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Распределитель свободных id.
+ * Хранит свободные id в виде непересекающихся отрезков [start, end], упорядоченных по началу.
+ * Наименьший свободный id, занятие и освобождение id выполняются за O(log r), где r - число отрезков.
+ */
+public class IdAllocator {
+    /**
+     * наименьший допустимый id
+     */
+    public static final long MIN_ID = 1;
+
+    /**
+     * свободные отрезки: начало -> конец (включительно)
+     */
+    private final TreeMap<Long, Long> free = new TreeMap<>();
+
+    /**
+     * Конструктор, все id от MIN_ID до Long.MAX_VALUE свободны
+     */
+    public IdAllocator() {
+        reset();
+    }
+
+    /**
+     * Делает свободными все id
+     */
+    public void reset() {
+        free.clear();
+        free.put(MIN_ID, Long.MAX_VALUE);
+    }
+
+    /**
+     * Перестраивает распределитель за один проход по отсортированным занятым id
+     *
+     * @param sortedIds занятые id в порядке возрастания, без повторов
+     */
+    public void rebuild(long[] sortedIds) {
+        free.clear();
+        long next = MIN_ID;
+        for (long id : sortedIds) {
+            if (id < next) continue;
+            if (id > next) free.put(next, id - 1);
+            if (id == Long.MAX_VALUE) return;
+            next = id + 1;
+        }
+        free.put(next, Long.MAX_VALUE);
+    }
+
+    /**
+     * @return наименьший свободный id
+     * @throws NoSuchElementException если свободных id не осталось
+     */
+    public long lowestFree() {
+        if (free.isEmpty()) throw new NoSuchElementException("Свободных id не осталось");
+        return free.firstKey();
+    }
+
+    /**
+     * @param id проверяемый id
+     * @return true, если id свободен
+     */
+    public boolean isFree(long id) {
+        Map.Entry<Long, Long> range = free.floorEntry(id);
+        return range != null && range.getValue() >= id;
+    }
+
+    /**
+     * Помечает id занятым
+     *
+     * @param id занимаемый id
+     * @return true, если id был свободен
+     */
+    public boolean reserve(long id) {
+        Map.Entry<Long, Long> range = free.floorEntry(id);
+        if (range == null || range.getValue() < id) return false;
+        long start = range.getKey();
+        long end = range.getValue();
+        if (start == id) free.remove(start);
+        else free.put(start, id - 1);
+        if (end > id) free.put(id + 1, end);
+        return true;
+    }
+
+    /**
+     * Возвращает id в число свободных, склеивая соседние отрезки
+     *
+     * @param id освобождаемый id
+     * @return true, если id был занят
+     */
+    public boolean release(long id) {
+        if (id < MIN_ID || isFree(id)) return false;
+        long start = id;
+        long end = id;
+        Map.Entry<Long, Long> before = free.floorEntry(id);
+        if (before != null && before.getValue() == id - 1) {
+            start = before.getKey();
+        }
+        if (id < Long.MAX_VALUE) {
+            Long afterEnd = free.remove(id + 1);
+            if (afterEnd != null) end = afterEnd;
+        }
+        free.put(start, end);
+        return true;
+    }
+
+    /**
+     * Обходит занятые id в порядке убывания.
+     * Занятые id - это промежутки между свободными отрезками, поэтому пропуск первых offset id
+     * стоит O(r), а не O(offset)
+     *
+     * @param offset сколько наибольших занятых id пропустить
+     * @param action действие над id; вернув false, оно прерывает обход
+     */
+    public void forEachUsedDescending(long offset, LongPredicate action) {
+        long upper = Long.MAX_VALUE;
+        for (Map.Entry<Long, Long> range : free.descendingMap().entrySet()) {
+            if (range.getValue() < upper) {
+                // занятый промежуток (range.end, upper]
+                long lower = range.getValue() + 1;
+                long length = upper - lower + 1;
+                if (offset >= length) {
+                    offset -= length;
+                } else {
+                    for (long id = upper - offset; id >= lower; id--) {
+                        if (!action.test(id)) return;
+                    }
+                    offset = 0;
+                }
+            }
+            upper = range.getKey() - 1;
+        }
+        for (long id = upper - offset; id >= MIN_ID; id--) {
+            if (!action.test(id)) return;
+        }
+    }
+
+    /**
+     * @return количество свободных отрезков
+     */
+    public int rangeCount() {
+        return free.size();
+    }
+}
@@ -0,0 +1,314 @@
+package utility;
+
+import moduls.Movie;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Динамическое k-d дерево с корзинами в листьях.
+ * <p>
+ * Точка элемента вычисляется функцией point; в листе хранится до BUCKET_SIZE элементов,
+ * переполненный лист делится по медиане вдоль оси с наибольшим разбросом.
+ * Элемент с координатой меньше разделителя лежит слева, иначе справа, поэтому удаление
+ * находит лист тем же спуском, что и вставка. Если лист оказался слишком глубоко,
+ * перестраивается наименьшее несбалансированное поддерево на пути к нему (как в scapegoat-дереве).
+ */
+public class KdTree {
+    private static final int BUCKET_SIZE = 32;
+    /**
+     * поддерево считается несбалансированным, если в одной его ветви больше этой доли элементов
+     */
+    private static final double BALANCE = 0.7;
+
+    /**
+     * Элемент и его точка
+     */
+    private record Entry(Movie movie, double[] point) {
+    }
+
+    /**
+     * Узел дерева: лист с корзиной или внутренний узел с разделителем
+     */
+    private static class Node {
+        private ArrayList<Entry> bucket = new ArrayList<>();
+        /**
+         * количество элементов в поддереве
+         */
+        private int count;
+        /**
+         * размер корзины, при превышении которого лист пробует разделиться;
+         * удваивается, если все точки листа совпадают
+         */
+        private int splitAt = BUCKET_SIZE;
+        private int axis;
+        private double split;
+        private Node left;
+        private Node right;
+
+        private boolean isLeaf() {
+            return bucket != null;
+        }
+    }
+
+    private final int dimensions;
+    private final Function<Movie, double[]> point;
+    private Node root = new Node();
+    private int size;
+
+    /**
+     * Конструктор
+     *
+     * @param dimensions размерность пространства
+     * @param point      функция, вычисляющая точку элемента (массив длины dimensions)
+     */
+    public KdTree(int dimensions, Function<Movie, double[]> point) {
+        this.dimensions = dimensions;
+        this.point = point;
+    }
+
+    /**
+     * @return количество элементов
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Добавляет элемент
+     *
+     * @param movie элемент
+     */
+    public void add(Movie movie) {
+        Entry entry = new Entry(movie, point.apply(movie));
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        while (true) {
+            node.count++;
+            path.add(node);
+            if (node.isLeaf()) break;
+            node = entry.point[node.axis] < node.split ? node.left : node.right;
+        }
+        node.bucket.add(entry);
+        size++;
+        if (node.bucket.size() <= node.splitAt) return;
+        if (path.size() > maxDepth()) {
+            for (int i = path.size() - 2; i >= 0; i--) {
+                Node ancestor = path.get(i);
+                if (Math.max(ancestor.left.count, ancestor.right.count) > BALANCE * ancestor.count) {
+                    List<Entry> entries = new ArrayList<>(ancestor.count);
+                    collect(ancestor, entries);
+                    replace(ancestor, build(entries));
+                    return;
+                }
+            }
+        }
+        replace(node, build(node.bucket));
+    }
+
+    /**
+     * Удаляет элемент
+     *
+     * @param movie элемент
+     * @return true, если элемент был в дереве
+     */
+    public boolean remove(Movie movie) {
+        double[] p = point.apply(movie);
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        while (true) {
+            path.add(node);
+            if (node.isLeaf()) break;
+            node = p[node.axis] < node.split ? node.left : node.right;
+        }
+        for (int i = 0; i < node.bucket.size(); i++) {
+            if (node.bucket.get(i).movie == movie) {
+                node.bucket.set(i, node.bucket.get(node.bucket.size() - 1));
+                node.bucket.remove(node.bucket.size() - 1);
+                for (Node onPath : path) onPath.count--;
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Обходит элементы на расстоянии не больше radius от точки
+     *
+     * @param query  точка запроса
+     * @param radius радиус
+     * @param action действие над элементом и расстоянием до него
+     * @return количество найденных элементов
+     */
+    public long forEachWithin(double[] query, double radius, DistanceConsumer action) {
+        return within(root, query, radius, radius * radius, action);
+    }
+
+    /**
+     * Находит k ближайших к точке элементов
+     *
+     * @param query точка запроса
+     * @param k     количество элементов
+     * @return элементы в порядке возрастания расстояния (при равенстве - по id)
+     */
+    public List<Movie> nearest(double[] query, int k) {
+        if (k <= 0 || size == 0) return List.of();
+        Comparator<Entry> byDistance = Comparator.<Entry>comparingDouble(entry -> distanceSquared(entry.point, query))
+                .thenComparingLong(entry -> entry.movie.getId());
+        PriorityQueue<Entry> best = new PriorityQueue<>(k, byDistance.reversed());
+        nearest(root, query, k, best, byDistance);
+        Entry[] result = best.toArray(new Entry[0]);
+        Arrays.sort(result, byDistance);
+        List<Movie> movies = new ArrayList<>(result.length);
+        for (Entry entry : result) movies.add(entry.movie);
+        return movies;
+    }
+
+    /**
+     * Получатель элемента вместе с расстоянием до точки запроса
+     */
+    @FunctionalInterface
+    public interface DistanceConsumer {
+        void accept(Movie movie, double distance);
+    }
+
+    private long within(Node node, double[] query, double radius, double radiusSquared, DistanceConsumer action) {
+        if (node.isLeaf()) {
+            long count = 0;
+            for (Entry entry : node.bucket) {
+                double distance = distanceSquared(entry.point, query);
+                if (distance <= radiusSquared) {
+                    action.accept(entry.movie, Math.sqrt(distance));
+                    count++;
+                }
+            }
+            return count;
+        }
+        long count = 0;
+        if (query[node.axis] - radius < node.split) count += within(node.left, query, radius, radiusSquared, action);
+        if (query[node.axis] + radius >= node.split) count += within(node.right, query, radius, radiusSquared, action);
+        return count;
+    }
+
+    private void nearest(Node node, double[] query, int k, PriorityQueue<Entry> best, Comparator<Entry> byDistance) {
+        if (node.isLeaf()) {
+            for (Entry entry : node.bucket) {
+                if (best.size() < k) {
+                    best.add(entry);
+                } else if (byDistance.compare(entry, best.peek()) < 0) {
+                    best.poll();
+                    best.add(entry);
+                }
+            }
+            return;
+        }
+        double delta = query[node.axis] - node.split;
+        Node near = delta < 0 ? node.left : node.right;
+        Node far = delta < 0 ? node.right : node.left;
+        nearest(near, query, k, best, byDistance);
+        if (best.size() < k || delta * delta <= distanceSquared(best.peek().point, query)) {
+            nearest(far, query, k, best, byDistance);
+        }
+    }
+
+    /**
+     * Заменяет содержимое узла построенным поддеревом, сохраняя ссылку на узел у родителя
+     */
+    private static void replace(Node target, Node built) {
+        target.bucket = built.bucket;
+        target.count = built.count;
+        target.splitAt = built.splitAt;
+        target.axis = built.axis;
+        target.split = built.split;
+        target.left = built.left;
+        target.right = built.right;
+    }
+
+    /**
+     * Строит сбалансированное поддерево над элементами
+     */
+    private Node build(List<Entry> entries) {
+        Node node = new Node();
+        node.count = entries.size();
+        if (entries.size() <= BUCKET_SIZE) {
+            node.bucket.addAll(entries);
+            return node;
+        }
+        int axis = widestAxis(entries);
+        Entry[] sorted = entries.toArray(new Entry[0]);
+        Arrays.sort(sorted, Comparator.comparingDouble(entry -> entry.point[axis]));
+        int middle = splitIndex(sorted, axis);
+        if (middle < 0) {
+            // все точки совпадают: лист делить бесполезно
+            node.bucket.addAll(entries);
+            while (node.splitAt < entries.size()) node.splitAt *= 2;
+            return node;
+        }
+        node.bucket = null;
+        node.axis = axis;
+        node.split = sorted[middle].point[axis];
+        node.left = build(Arrays.asList(sorted).subList(0, middle));
+        node.right = build(Arrays.asList(sorted).subList(middle, sorted.length));
+        return node;
+    }
+
+    /**
+     * Индекс первого элемента правой половины, ближайший к медиане, такой что слева
+     * все координаты строго меньше; -1, если все координаты по оси равны
+     */
+    private static int splitIndex(Entry[] sorted, int axis) {
+        int middle = sorted.length / 2;
+        double value = sorted[middle].point[axis];
+        int low = middle;
+        while (low > 0 && sorted[low - 1].point[axis] == value) low--;
+        if (low > 0) return low;
+        int high = middle;
+        while (high < sorted.length && sorted[high].point[axis] == value) high++;
+        return high < sorted.length ? high : -1;
+    }
+
+    private int widestAxis(List<Entry> entries) {
+        int axis = 0;
+        double widest = -1;
+        for (int d = 0; d < dimensions; d++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (Entry entry : entries) {
+                min = Math.min(min, entry.point[d]);
+                max = Math.max(max, entry.point[d]);
+            }
+            if (max - min > widest) {
+                widest = max - min;
+                axis = d;
+            }
+        }
+        return axis;
+    }
+
+    private static void collect(Node node, List<Entry> entries) {
+        if (node.isLeaf()) {
+            entries.addAll(node.bucket);
+            return;
+        }
+        collect(node.left, entries);
+        collect(node.right, entries);
+    }
+
+    /**
+     * Допустимая глубина листа: вдвое больше глубины сбалансированного дерева плюс запас
+     */
+    private int maxDepth() {
+        return 2 * (32 - Integer.numberOfLeadingZeros(size / BUCKET_SIZE + 1)) + 8;
+    }
+
+    private static double distanceSquared(double[] a, double[] b) {
+        double sum = 0;
+        for (int d = 0; d < a.length; d++) {
+            double delta = a[d] - b[d];
+            sum += delta * delta;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,24 @@
+package utility;
+
+/**
+ * Перемешивание ключей long для хеш-таблиц и распределения по шардам
+ */
+public final class LongHash {
+    private LongHash() {
+    }
+
+    /**
+     * Перемешивает ключ финализатором MurmurHash3, чтобы последовательные id не образовывали кластеры
+     *
+     * @param key ключ
+     * @return перемешанный ключ
+     */
+    public static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
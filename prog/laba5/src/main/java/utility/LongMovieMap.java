@@ -0,0 +1,277 @@
+package utility;
+
+import moduls.Movie;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Словарь long -> Movie с открытой адресацией и линейным пробированием.
+ * Ключи хранятся в примитивном массиве, поэтому поиск по id не создает объектов Long.
+ * Удаленные ячейки помечаются надгробием и вычищаются при следующей перестройке таблицы.
+ * Кроме элемента, каждому ключу сопоставлена целочисленная метка (по умолчанию 0): в ней менеджер
+ * коллекции хранит номер строки элемента в битовых индексах, не заводя для этого второй словарь.
+ */
+public class LongMovieMap {
+    /**
+     * маркер удаленной ячейки
+     */
+    private static final Object TOMBSTONE = new Object();
+    /**
+     * максимальная доля занятых ячеек (живых и удаленных)
+     */
+    private static final float LOAD_FACTOR = 0.6f;
+    /**
+     * минимальная емкость таблицы
+     */
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * ключи
+     */
+    private long[] keys;
+    /**
+     * значения: null - пустая ячейка, TOMBSTONE - удаленная, иначе Movie
+     */
+    private Object[] values;
+    /**
+     * метки элементов
+     */
+    private int[] tags;
+    /**
+     * количество живых элементов
+     */
+    private int size;
+    /**
+     * количество надгробий
+     */
+    private int tombstones;
+    /**
+     * порог перестройки таблицы
+     */
+    private int threshold;
+
+    /**
+     * Конструктор
+     */
+    public LongMovieMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param expectedSize ожидаемое количество элементов
+     */
+    public LongMovieMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Функция получения элемента по ключу
+     *
+     * @param key ключ
+     * @return элемент или null, если ключ отсутствует
+     */
+    public Movie get(long key) {
+        // массивы читаются один раз: при оптимистичном чтении из другого потока они могут быть заменены перестройкой
+        long[] keys = this.keys;
+        Object[] values = this.values;
+        int mask = keys.length - 1;
+        int i = LongHash.mix(key) & mask;
+        Object value;
+        while ((value = values[i]) != null) {
+            if (value != TOMBSTONE && keys[i] == key) return (Movie) value;
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * @param key ключ
+     * @return метка элемента
+     * @throws NoSuchElementException если ключ отсутствует
+     */
+    public int getTag(long key) {
+        return tags[slot(key)];
+    }
+
+    /**
+     * Функция изменения метки элемента
+     *
+     * @param key ключ
+     * @param tag метка
+     * @throws NoSuchElementException если ключ отсутствует
+     */
+    public void setTag(long key, int tag) {
+        tags[slot(key)] = tag;
+    }
+
+    /**
+     * @param key ключ
+     * @return true, если ключ присутствует в словаре
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Функция добавления элемента. Метка существующего ключа сохраняется, новому ключу назначается 0
+     *
+     * @param key   ключ
+     * @param value элемент (не null)
+     * @return предыдущий элемент по этому ключу или null
+     */
+    public Movie put(long key, Movie value) {
+        if (value == null) throw new NullPointerException("value");
+        int mask = keys.length - 1;
+        int i = LongHash.mix(key) & mask;
+        int firstTombstone = -1;
+        Object current;
+        while ((current = values[i]) != null) {
+            if (current == TOMBSTONE) {
+                if (firstTombstone < 0) firstTombstone = i;
+            } else if (keys[i] == key) {
+                values[i] = value;
+                return (Movie) current;
+            }
+            i = (i + 1) & mask;
+        }
+        if (firstTombstone >= 0) {
+            i = firstTombstone;
+            tombstones--;
+        }
+        keys[i] = key;
+        values[i] = value;
+        tags[i] = 0;
+        size++;
+        if (size + tombstones > threshold) rehash();
+        return null;
+    }
+
+    /**
+     * Функция удаления элемента по ключу
+     *
+     * @param key ключ
+     * @return удаленный элемент или null, если ключ отсутствовал
+     */
+    public Movie remove(long key) {
+        int mask = keys.length - 1;
+        int i = LongHash.mix(key) & mask;
+        Object value;
+        while ((value = values[i]) != null) {
+            if (value != TOMBSTONE && keys[i] == key) {
+                size--;
+                // если следующая ячейка пуста, надгробие не нужно: цепочка пробирования здесь и так обрывается
+                if (values[(i + 1) & mask] == null) {
+                    values[i] = null;
+                } else {
+                    values[i] = TOMBSTONE;
+                    tombstones++;
+                }
+                return (Movie) value;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * @return количество элементов
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true, если словарь пуст
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Заранее увеличивает таблицу, чтобы вставка expectedSize элементов прошла без перестроек
+     *
+     * @param expectedSize ожидаемое количество элементов
+     */
+    public void ensureCapacity(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        if (capacity > keys.length) rehash(capacity);
+    }
+
+    /**
+     * Очищает словарь, сохраняя выделенную емкость
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+        tombstones = 0;
+    }
+
+    /**
+     * Обходит все элементы словаря в порядке ячеек таблицы
+     *
+     * @param action действие над элементом
+     */
+    public void forEachValue(Consumer<Movie> action) {
+        for (Object value : values) {
+            if (value != null && value != TOMBSTONE) action.accept((Movie) value);
+        }
+    }
+
+    /**
+     * Перестраивает таблицу: удаляет надгробия и при необходимости удваивает емкость
+     */
+    private void rehash() {
+        // если таблицу заполнили в основном надгробия, достаточно перестроить ее в той же емкости
+        rehash(size + 1 > threshold / 2 ? keys.length << 1 : keys.length);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldTags = tags;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldValues.length; j++) {
+            Object value = oldValues[j];
+            if (value == null || value == TOMBSTONE) continue;
+            int i = LongHash.mix(oldKeys[j]) & mask;
+            while (values[i] != null) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = value;
+            tags[i] = oldTags[j];
+        }
+        tombstones = 0;
+    }
+
+    /**
+     * @return ячейка ключа
+     * @throws NoSuchElementException если ключ отсутствует
+     */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int i = LongHash.mix(key) & mask;
+        Object value;
+        while ((value = values[i]) != null) {
+            if (value != TOMBSTONE && keys[i] == key) return i;
+            i = (i + 1) & mask;
+        }
+        throw new NoSuchElementException("Нет элемента с id " + key);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        tags = new int[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * LOAD_FACTOR <= expectedSize) capacity <<= 1;
+        return capacity;
+    }
+}
@@ -0,0 +1,55 @@
+package utility;
+
+import java.util.*;
+
+/**
+ * k-путевое слияние упорядоченных итераторов.
+ * Текущие элементы всех итераторов хранятся в куче, поэтому next стоит O(log k),
+ * а элементы читаются из источников лениво, по одному
+ *
+ * @param <T> тип элементов
+ */
+public final class MergingIterator<T> implements Iterator<T> {
+    /**
+     * Текущий элемент источника и сам источник
+     */
+    private static final class Head<T> {
+        private T value;
+        private final Iterator<? extends T> source;
+
+        private Head(T value, Iterator<? extends T> source) {
+            this.value = value;
+            this.source = source;
+        }
+    }
+
+    private final PriorityQueue<Head<T>> heads;
+
+    /**
+     * @param sources итераторы, каждый упорядочен по order
+     * @param order   порядок элементов
+     */
+    public MergingIterator(Collection<? extends Iterator<? extends T>> sources, Comparator<? super T> order) {
+        heads = new PriorityQueue<>(Math.max(1, sources.size()), (a, b) -> order.compare(a.value, b.value));
+        for (Iterator<? extends T> source : sources) {
+            if (source.hasNext()) heads.add(new Head<>(source.next(), source));
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heads.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        Head<T> head = heads.poll();
+        if (head == null) throw new NoSuchElementException();
+        T value = head.value;
+        if (head.source.hasNext()) {
+            head.value = head.source.next();
+            heads.add(head);
+        }
+        return value;
+    }
+}
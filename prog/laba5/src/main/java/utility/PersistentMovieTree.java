@@ -0,0 +1,337 @@
+package utility;
+
+import moduls.Movie;
+
+import java.util.*;
+
+/**
+ * Неизменяемое AVL-дерево фильмов в порядке Movie.compareTo.
+ * <p>
+ * Изменение не трогает существующие узлы: копируются только узлы на пути от корня к месту изменения
+ * (O(log n) узлов), остальные поддеревья новое дерево делит со старым. Поэтому каждая версия,
+ * однажды полученная, остается целой и неизменной, и ее можно обходить без блокировок,
+ * пока другие потоки публикуют новые версии.
+ * <p>
+ * Для изменения используются with, without и tailFrom; методы add и remove интерфейса Set не поддерживаются.
+ */
+public final class PersistentMovieTree extends AbstractSet<Movie> {
+    /**
+     * пустое дерево
+     */
+    public static final PersistentMovieTree EMPTY = new PersistentMovieTree(null);
+
+    /**
+     * Неизменяемый узел дерева
+     */
+    private static final class Node {
+        private final Movie value;
+        private final Node left;
+        private final Node right;
+        private final int height;
+        /**
+         * количество элементов в поддереве
+         */
+        private final int size;
+
+        private Node(Node left, Movie value, Node right) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    private final Node root;
+
+    private PersistentMovieTree(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Строит дерево из отсортированного массива без повторов за линейное время
+     *
+     * @param sorted элементы в естественном порядке
+     * @return дерево
+     */
+    public static PersistentMovieTree fromSorted(Movie[] sorted) {
+        return sorted.length == 0 ? EMPTY : new PersistentMovieTree(build(sorted, 0, sorted.length));
+    }
+
+    private static Node build(Movie[] sorted, int from, int to) {
+        if (from >= to) return null;
+        int middle = (from + to) >>> 1;
+        return new Node(build(sorted, from, middle), sorted[middle], build(sorted, middle + 1, to));
+    }
+
+    /**
+     * @param e элемент
+     * @return дерево с элементом (это же дерево, если элемент уже есть)
+     */
+    public PersistentMovieTree with(Movie e) {
+        Node inserted = insert(root, e);
+        return inserted == root ? this : new PersistentMovieTree(inserted);
+    }
+
+    /**
+     * @param e элемент
+     * @return дерево без элемента (это же дерево, если элемента нет)
+     */
+    public PersistentMovieTree without(Movie e) {
+        Node removed = delete(root, e);
+        return removed == root ? this : new PersistentMovieTree(removed);
+    }
+
+    /**
+     * Отрезает начало дерева: новое дерево содержит только элементы, не меньшие bound.
+     * Разрез идет вдоль одного пути и склеивает O(log n) поддеревьев, поэтому стоит O(log n)
+     * независимо от количества отрезанных элементов
+     *
+     * @param bound граница
+     * @return дерево из элементов >= bound
+     */
+    public PersistentMovieTree tailFrom(Movie bound) {
+        Node tail = splitTail(root, bound);
+        return tail == root ? this : tail == null ? EMPTY : new PersistentMovieTree(tail);
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Movie e)) return false;
+        Node node = root;
+        while (node != null) {
+            int cmp = e.compareTo(node.value);
+            if (cmp == 0) return true;
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * @return наименьший элемент или null, если дерево пусто
+     */
+    public Movie first() {
+        Node node = root;
+        if (node == null) return null;
+        while (node.left != null) node = node.left;
+        return node.value;
+    }
+
+    /**
+     * @return наибольший элемент или null, если дерево пусто
+     */
+    public Movie last() {
+        Node node = root;
+        if (node == null) return null;
+        while (node.right != null) node = node.right;
+        return node.value;
+    }
+
+    /**
+     * @return итератор в порядке возрастания
+     */
+    @Override
+    public Iterator<Movie> iterator() {
+        return new TreeIterator(root, null, true);
+    }
+
+    /**
+     * @param from первый элемент, с которого начинается обход (включительно)
+     * @return итератор по элементам >= from в порядке возрастания
+     */
+    public Iterator<Movie> iteratorFrom(Movie from) {
+        return new TreeIterator(root, from, true);
+    }
+
+    /**
+     * Итератор, начинающийся с элемента заданного ранга. Размеры поддеревьев хранятся в узлах,
+     * поэтому начало находится за O(log n), и дерево можно обходить непрерывными отрезками по рангам
+     *
+     * @param rank номер первого элемента в порядке возрастания (с нуля)
+     * @return итератор по элементам с рангом >= rank в порядке возрастания
+     */
+    public Iterator<Movie> iteratorFromRank(int rank) {
+        return new TreeIterator(root, rank);
+    }
+
+    /**
+     * @return итератор в порядке убывания
+     */
+    public Iterator<Movie> descendingIterator() {
+        return new TreeIterator(root, null, false);
+    }
+
+    @Override
+    public Spliterator<Movie> spliterator() {
+        return Spliterators.spliterator(iterator(), size(),
+                Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.SORTED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    /**
+     * Обход по стеку пути: next стоит O(1) в среднем и O(log n) в худшем случае
+     */
+    private static final class TreeIterator implements Iterator<Movie> {
+        private final ArrayDeque<Node> path = new ArrayDeque<>();
+        private final boolean ascending;
+
+        private TreeIterator(Node root, Movie from, boolean ascending) {
+            this.ascending = ascending;
+            Node node = root;
+            while (node != null) {
+                if (from != null && node.value.compareTo(from) < 0) {
+                    node = node.right;
+                } else {
+                    path.push(node);
+                    node = ascending ? node.left : node.right;
+                }
+            }
+        }
+
+        private TreeIterator(Node root, int rank) {
+            this.ascending = true;
+            Node node = root;
+            while (node != null) {
+                int left = size(node.left);
+                if (rank < left) {
+                    path.push(node);
+                    node = node.left;
+                } else if (rank == left) {
+                    path.push(node);
+                    break;
+                } else {
+                    rank -= left + 1;
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !path.isEmpty();
+        }
+
+        @Override
+        public Movie next() {
+            if (path.isEmpty()) throw new NoSuchElementException();
+            Node node = path.pop();
+            for (Node next = ascending ? node.right : node.left; next != null; next = ascending ? next.left : next.right) {
+                path.push(next);
+            }
+            return node.value;
+        }
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Проверяет инварианты дерева: порядок элементов, AVL-баланс, высоты и размеры поддеревьев
+     *
+     * @return true, если все инварианты выполнены
+     */
+    boolean isValid() {
+        return verify(root, null, null) >= 0;
+    }
+
+    /**
+     * @return высота поддерева или -1, если в нем нарушен инвариант
+     */
+    private static int verify(Node node, Movie low, Movie high) {
+        if (node == null) return 0;
+        if (low != null && node.value.compareTo(low) <= 0 || high != null && node.value.compareTo(high) >= 0) return -1;
+        int left = verify(node.left, low, node.value);
+        int right = verify(node.right, node.value, high);
+        if (left < 0 || right < 0 || Math.abs(left - right) > 1) return -1;
+        if (node.height != Math.max(left, right) + 1 || node.size != size(node.left) + size(node.right) + 1) return -1;
+        return node.height;
+    }
+
+    private static Node insert(Node node, Movie e) {
+        if (node == null) return new Node(null, e, null);
+        int cmp = e.compareTo(node.value);
+        if (cmp == 0) return node;
+        if (cmp < 0) {
+            Node left = insert(node.left, e);
+            return left == node.left ? node : balance(left, node.value, node.right);
+        }
+        Node right = insert(node.right, e);
+        return right == node.right ? node : balance(node.left, node.value, right);
+    }
+
+    private static Node delete(Node node, Movie e) {
+        if (node == null) return null;
+        int cmp = e.compareTo(node.value);
+        if (cmp < 0) {
+            Node left = delete(node.left, e);
+            return left == node.left ? node : balance(left, node.value, node.right);
+        }
+        if (cmp > 0) {
+            Node right = delete(node.right, e);
+            return right == node.right ? node : balance(node.left, node.value, right);
+        }
+        if (node.left == null) return node.right;
+        if (node.right == null) return node.left;
+        Node min = node.right;
+        while (min.left != null) min = min.left;
+        return balance(node.left, min.value, deleteMin(node.right));
+    }
+
+    private static Node deleteMin(Node node) {
+        if (node.left == null) return node.right;
+        return balance(deleteMin(node.left), node.value, node.right);
+    }
+
+    private static Node splitTail(Node node, Movie bound) {
+        if (node == null) return null;
+        if (node.value.compareTo(bound) < 0) return splitTail(node.right, bound);
+        Node left = splitTail(node.left, bound);
+        return left == node.left ? node : join(left, node.value, node.right);
+    }
+
+    /**
+     * Склеивает два дерева и элемент между ними; спускается по более высокому дереву
+     * на разницу высот, поэтому стоит O(|height(left) - height(right)| + 1)
+     */
+    private static Node join(Node left, Movie value, Node right) {
+        if (height(left) > height(right) + 1) return balance(left.left, left.value, join(left.right, value, right));
+        if (height(right) > height(left) + 1) return balance(join(left, value, right.left), right.value, right.right);
+        return new Node(left, value, right);
+    }
+
+    /**
+     * Создает узел, восстанавливая AVL-баланс поворотами, если высоты поддеревьев отличаются на 2
+     */
+    private static Node balance(Node left, Movie value, Node right) {
+        int diff = height(left) - height(right);
+        if (diff > 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node(left.left, left.value, new Node(left.right, value, right));
+            }
+            Node middle = left.right;
+            return new Node(new Node(left.left, left.value, middle.left), middle.value, new Node(middle.right, value, right));
+        }
+        if (diff < -1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node(new Node(left, value, right.left), right.value, right.right);
+            }
+            Node middle = right.left;
+            return new Node(new Node(left, value, middle.left), middle.value, new Node(middle.right, right.value, right.right));
+        }
+        return new Node(left, value, right);
+    }
+}
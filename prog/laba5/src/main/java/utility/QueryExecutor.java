@@ -0,0 +1,142 @@
+package utility;
+
+import moduls.Movie;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Выполнение запросов, обходящих всю версию коллекции, в ForkJoinPool.
+ * <p>
+ * Версия делится по рангам на непрерывные отрезки (начало отрезка находится за O(log n)),
+ * отрезки обрабатываются задачами пула, а результаты соседних отрезков объединяются слева направо,
+ * поэтому сохраняют порядок коллекции. Коллекции меньше threshold обходятся последовательно
+ * в вызывающем потоке: на них накладные расходы на задачи больше выигрыша.
+ */
+public class QueryExecutor {
+    /**
+     * размер коллекции, начиная с которого обход выполняется параллельно
+     */
+    public static final int DEFAULT_THRESHOLD = 32_768;
+    /**
+     * наименьший отрезок, который еще делится между задачами
+     */
+    private static final int MIN_CHUNK = 2048;
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final int threshold;
+
+    /**
+     * Параллельное выполнение на всех процессорах (в общем пуле) с порогом по умолчанию
+     */
+    public QueryExecutor() {
+        this(ForkJoinPool.getCommonPoolParallelism(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param parallelism количество потоков; 1 - всегда последовательно
+     * @param threshold   размер коллекции, начиная с которого обход выполняется параллельно
+     */
+    public QueryExecutor(int parallelism, int threshold) {
+        if (parallelism < 1) throw new IllegalArgumentException("Параллелизм должен быть положительным");
+        this.parallelism = parallelism;
+        this.threshold = threshold;
+        if (parallelism == 1) pool = null;
+        else if (parallelism == ForkJoinPool.getCommonPoolParallelism()) pool = ForkJoinPool.commonPool();
+        else pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * @return количество потоков
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return размер коллекции, начиная с которого обход выполняется параллельно
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Сворачивает элементы версии: каждый отрезок накапливается в своем результате,
+     * затем результаты объединяются в порядке отрезков
+     *
+     * @param movies      версия коллекции
+     * @param supplier    новый пустой результат отрезка
+     * @param accumulator добавление элемента к результату
+     * @param combiner    объединение результата левого отрезка с результатом правого
+     * @return результат по всей версии
+     */
+    public <A> A collect(PersistentMovieTree movies, Supplier<A> supplier, BiConsumer<A, Movie> accumulator, BinaryOperator<A> combiner) {
+        int size = movies.size();
+        if (pool == null || size < threshold) return scan(movies, 0, size, supplier, accumulator);
+        int chunk = Math.max(MIN_CHUNK, size / (parallelism * 4));
+        return pool.invoke(new Chunk<>(movies, 0, size, chunk, supplier, accumulator, combiner));
+    }
+
+    /**
+     * @return элементы, удовлетворяющие условию, в естественном порядке
+     */
+    public List<Movie> filter(PersistentMovieTree movies, Predicate<Movie> predicate) {
+        return collect(movies, ArrayList::new, (list, movie) -> {
+            if (predicate.test(movie)) list.add(movie);
+        }, (left, right) -> {
+            left.addAll(right);
+            return left;
+        });
+    }
+
+    private static <A> A scan(PersistentMovieTree movies, int from, int to, Supplier<A> supplier, BiConsumer<A, Movie> accumulator) {
+        A result = supplier.get();
+        Iterator<Movie> iterator = movies.iteratorFromRank(from);
+        for (int i = from; i < to; i++) accumulator.accept(result, iterator.next());
+        return result;
+    }
+
+    /**
+     * Задача над отрезком рангов [from, to): делится пополам, пока длиннее chunk
+     */
+    private static final class Chunk<A> extends RecursiveTask<A> {
+        private static final long serialVersionUID = 1L;
+
+        private final PersistentMovieTree movies;
+        private final int from;
+        private final int to;
+        private final int chunk;
+        private final Supplier<A> supplier;
+        private final BiConsumer<A, Movie> accumulator;
+        private final BinaryOperator<A> combiner;
+
+        private Chunk(PersistentMovieTree movies, int from, int to, int chunk,
+                      Supplier<A> supplier, BiConsumer<A, Movie> accumulator, BinaryOperator<A> combiner) {
+            this.movies = movies;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from <= chunk) return scan(movies, from, to, supplier, accumulator);
+            int middle = (from + to) >>> 1;
+            var left = new Chunk<>(movies, from, middle, chunk, supplier, accumulator, combiner);
+            left.fork();
+            A right = new Chunk<>(movies, middle, to, chunk, supplier, accumulator, combiner).compute();
+            return combiner.apply(left.join(), right);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package utility;
+
+import moduls.Coordinates;
+import moduls.Movie;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Пространственный индекс по координатам фильмов: равномерная сетка с хешированием ячеек.
+ * <p>
+ * Плоскость делится на квадратные ячейки CELL_SIZE x CELL_SIZE; хранятся только непустые ячейки,
+ * поэтому разреженные и далекие координаты не требуют памяти под пустое пространство.
+ * Поиск ближайших обходит кольца ячеек вокруг точки запроса и останавливается, как только
+ * следующее кольцо не может содержать точку ближе уже найденной k-й.
+ */
+public class SpatialGrid {
+    /**
+     * сторона ячейки сетки
+     */
+    private static final int CELL_SIZE = 16;
+
+    /**
+     * ячейка (упакованные номера столбца и строки) -> фильмы в ней
+     */
+    private final HashMap<Long, ArrayList<Movie>> cells = new HashMap<>();
+    private int size;
+
+    /**
+     * Добавляет элемент в индекс
+     *
+     * @param movie элемент
+     */
+    public void add(Movie movie) {
+        Coordinates coordinates = movie.getCoordinates();
+        if (coordinates == null) return;
+        cells.computeIfAbsent(key(cell(coordinates.getX()), cell(coordinates.getY())), k -> new ArrayList<>(4)).add(movie);
+        size++;
+    }
+
+    /**
+     * Удаляет элемент из индекса
+     *
+     * @param movie элемент
+     */
+    public void remove(Movie movie) {
+        Coordinates coordinates = movie.getCoordinates();
+        if (coordinates == null) return;
+        long key = key(cell(coordinates.getX()), cell(coordinates.getY()));
+        ArrayList<Movie> movies = cells.get(key);
+        if (movies == null) return;
+        for (int i = 0; i < movies.size(); i++) {
+            if (movies.get(i) == movie) {
+                // порядок внутри ячейки не важен: на место удаленного ставится последний
+                movies.set(i, movies.get(movies.size() - 1));
+                movies.remove(movies.size() - 1);
+                size--;
+                if (movies.isEmpty()) cells.remove(key);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return количество элементов в индексе
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Находит k ближайших к точке элементов
+     *
+     * @param x координата x точки
+     * @param y координата y точки
+     * @param k количество элементов
+     * @return элементы в порядке возрастания расстояния (при равенстве - по id)
+     */
+    public List<Movie> nearest(int x, int y, int k) {
+        if (k <= 0 || size == 0) return List.of();
+        Comparator<Movie> byDistance = Comparator.<Movie>comparingDouble(movie -> distanceSquared(movie, x, y))
+                .thenComparingLong(Movie::getId);
+        // наибольший из найденных на вершине, чтобы его можно было вытеснить более близким
+        PriorityQueue<Movie> best = new PriorityQueue<>(k, byDistance.reversed());
+        int cx = cell(x);
+        int cy = cell(y);
+        int seen = 0;
+        for (long ring = 0; ; ring++) {
+            if (best.size() == k) {
+                double bound = (double) (ring - 1) * CELL_SIZE;
+                if (ring > 0 && bound * bound > distanceSquared(best.peek(), x, y)) break;
+            }
+            if (seen == size) break;
+            if (8 * ring > cells.size()) {
+                // кольцо длиннее, чем непустых ячеек: дешевле досмотреть все оставшиеся ячейки
+                for (Map.Entry<Long, ArrayList<Movie>> cell : cells.entrySet()) {
+                    long cellX = cell.getKey() >> 32;
+                    long cellY = (int) (long) cell.getKey();
+                    if (Math.max(Math.abs(cellX - cx), Math.abs(cellY - cy)) >= ring) offer(best, cell.getValue(), k, byDistance);
+                }
+                break;
+            }
+            seen += visitRing(cx, cy, ring, movies -> offer(best, movies, k, byDistance));
+        }
+        Movie[] result = best.toArray(new Movie[0]);
+        Arrays.sort(result, byDistance);
+        return Arrays.asList(result);
+    }
+
+    /**
+     * Обходит элементы в прямоугольнике [x1, x2] x [y1, y2]
+     *
+     * @param action действие над элементом
+     * @return количество элементов в прямоугольнике
+     */
+    public long forEachInBox(int x1, int y1, int x2, int y2, Consumer<Movie> action) {
+        long minX = Math.min(x1, x2), maxX = Math.max(x1, x2);
+        long minY = Math.min(y1, y2), maxY = Math.max(y1, y2);
+        long fromX = cell(minX), toX = cell(maxX), fromY = cell(minY), toY = cell(maxY);
+        long count = 0;
+        if ((toX - fromX + 1) * (toY - fromY + 1) <= cells.size()) {
+            for (long cellX = fromX; cellX <= toX; cellX++) {
+                for (long cellY = fromY; cellY <= toY; cellY++) {
+                    ArrayList<Movie> movies = cells.get(key(cellX, cellY));
+                    if (movies != null) count += filterBox(movies, minX, minY, maxX, maxY, action);
+                }
+            }
+        } else {
+            // прямоугольник покрывает больше ячеек, чем есть непустых: проверяем только непустые
+            for (Map.Entry<Long, ArrayList<Movie>> cell : cells.entrySet()) {
+                long cellX = cell.getKey() >> 32;
+                long cellY = (int) (long) cell.getKey();
+                if (cellX >= fromX && cellX <= toX && cellY >= fromY && cellY <= toY) {
+                    count += filterBox(cell.getValue(), minX, minY, maxX, maxY, action);
+                }
+            }
+        }
+        return count;
+    }
+
+    private static long filterBox(List<Movie> movies, long minX, long minY, long maxX, long maxY, Consumer<Movie> action) {
+        long count = 0;
+        for (Movie movie : movies) {
+            int x = movie.getCoordinates().getX();
+            int y = movie.getCoordinates().getY();
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                action.accept(movie);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Обходит непустые ячейки кольца ring (по Чебышеву) вокруг ячейки (cx, cy)
+     *
+     * @return количество элементов в кольце
+     */
+    private int visitRing(long cx, long cy, long ring, Consumer<List<Movie>> action) {
+        int count = 0;
+        if (ring == 0) {
+            ArrayList<Movie> movies = cells.get(key(cx, cy));
+            if (movies == null) return 0;
+            action.accept(movies);
+            return movies.size();
+        }
+        for (long dx = -ring; dx <= ring; dx++) {
+            count += visitCell(cx + dx, cy - ring, action);
+            count += visitCell(cx + dx, cy + ring, action);
+        }
+        for (long dy = -ring + 1; dy <= ring - 1; dy++) {
+            count += visitCell(cx - ring, cy + dy, action);
+            count += visitCell(cx + ring, cy + dy, action);
+        }
+        return count;
+    }
+
+    private int visitCell(long cellX, long cellY, Consumer<List<Movie>> action) {
+        ArrayList<Movie> movies = cells.get(key(cellX, cellY));
+        if (movies == null) return 0;
+        action.accept(movies);
+        return movies.size();
+    }
+
+    private static void offer(PriorityQueue<Movie> best, List<Movie> movies, int k, Comparator<Movie> byDistance) {
+        for (Movie movie : movies) {
+            if (best.size() < k) {
+                best.add(movie);
+            } else if (byDistance.compare(movie, best.peek()) < 0) {
+                best.poll();
+                best.add(movie);
+            }
+        }
+    }
+
+    private static double distanceSquared(Movie movie, long x, long y) {
+        double dx = movie.getCoordinates().getX() - x;
+        double dy = movie.getCoordinates().getY() - y;
+        return dx * dx + dy * dy;
+    }
+
+    private static int cell(long coordinate) {
+        return (int) Math.floorDiv(coordinate, CELL_SIZE);
+    }
+
+    private static long key(long cellX, long cellY) {
+        return (cellX << 32) | (cellY & 0xffffffffL);
+    }
+}
@@ -0,0 +1,155 @@
+package managers;
+
+import moduls.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utility.SilentConsole;
+import utility.TestMovies;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotTest {
+    @TempDir
+    Path dir;
+
+    private final SilentConsole console = new SilentConsole();
+
+    /**
+     * Фильмы из генератора и несколько записей длиннее буфера записи и буфера одной записи
+     */
+    private List<Movie> movies() {
+        List<Movie> movies = new ArrayList<>(Arrays.asList(new TestMovies(7).generate(5000)));
+        var location = new Location(-0.5, Long.MIN_VALUE, Long.MAX_VALUE, "Гусь-Хрустальный, \"центр\"");
+        var screenwriter = new Person("Ёлкин 🎬", 1.5f, Color.ORANGE, location);
+        movies.add(new Movie(5001, "Ж".repeat(300), new Coordinates(Integer.MIN_VALUE, Integer.MAX_VALUE),
+                LocalDate.of(1895, 12, 28), Long.MAX_VALUE, MovieGenre.FANTASY, MpaaRating.R, screenwriter));
+        movies.add(new Movie(5002, "x".repeat(100_000), new Coordinates(0, 0), LocalDate.of(2024, 2, 29),
+                1, MovieGenre.COMEDY, MpaaRating.G, screenwriter));
+        return movies;
+    }
+
+    private static List<String> read(Path path) throws IOException {
+        List<String> result = new ArrayList<>();
+        assertTrue(BinarySnapshot.read(path, movie -> result.add(TestMovies.describe(movie))));
+        return result;
+    }
+
+    @Test
+    void roundTripKeepsEveryField() throws Exception {
+        Path path = dir.resolve("collection.bin");
+        List<Movie> movies = movies();
+        BinarySnapshot.write(path, movies);
+
+        assertTrue(BinarySnapshot.isBinary(path));
+        assertIterableEquals(movies.stream().map(TestMovies::describe).toList(), read(path));
+    }
+
+    @Test
+    void dumpManagerKeepsFormatOfLoadedFile() throws Exception {
+        Path path = dir.resolve("collection.bin");
+        List<Movie> movies = movies();
+        assertTrue(new DumpManager(path.toString(), console, false, DumpManager.Format.BINARY).writeCollection(movies));
+
+        var dumpManager = new DumpManager(path.toString(), console);
+        List<Movie> loaded = new ArrayList<>();
+        assertTrue(dumpManager.readCollection(loaded::add));
+        assertTrue(dumpManager.writeCollection(loaded));
+        assertTrue(BinarySnapshot.isBinary(path));
+        assertIterableEquals(movies.stream().map(TestMovies::describe).toList(), read(path));
+    }
+
+    @Test
+    void consumerCanStopReading() throws Exception {
+        Path path = dir.resolve("collection.bin");
+        BinarySnapshot.write(path, movies());
+        int[] accepted = {0};
+        assertFalse(BinarySnapshot.read(path, movie -> ++accepted[0] < 3));
+        assertEquals(3, accepted[0]);
+    }
+
+    @Test
+    void corruptedPayloadIsRejectedBeforeAnyRecord() throws Exception {
+        Path path = dir.resolve("collection.bin");
+        BinarySnapshot.write(path, movies());
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var one = ByteBuffer.allocate(1);
+            long position = BinarySnapshot.HEADER_SIZE + 1000;
+            channel.read(one, position);
+            one.put(0, (byte) (one.get(0) ^ 1)).rewind();
+            channel.write(one, position);
+        }
+        int[] accepted = {0};
+        var exception = assertThrows(IOException.class, () -> BinarySnapshot.read(path, movie -> ++accepted[0] > 0));
+        assertEquals("контрольная сумма не совпадает", exception.getMessage());
+        assertEquals(0, accepted[0]);
+
+        assertFalse(new DumpManager(path.toString(), console).readCollection(movie -> true));
+        assertTrue(console.getErrors().get(0).contains("поврежден"), console.getErrors().toString());
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws Exception {
+        Path path = dir.resolve("collection.bin");
+        BinarySnapshot.write(path, movies());
+        try (var channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+        assertThrows(IOException.class, () -> BinarySnapshot.read(path, movie -> true));
+
+        try (var channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(BinarySnapshot.HEADER_SIZE - 1);
+        }
+        assertTrue(BinarySnapshot.isBinary(path));
+        assertThrows(IOException.class, () -> BinarySnapshot.read(path, movie -> true));
+    }
+
+    @Test
+    void locationWithoutZIsRejected() throws Exception {
+        Path path = dir.resolve("collection.bin");
+        Movie movie = new TestMovies(20).next(1);
+        BinarySnapshot.write(path, List.of(movie));
+        // z - последние 8 байт перед названием местоположения, перед ними стоит байт присутствия z;
+        // запись пересобирается так, как ее сохраняла первая версия формата для местоположения без z
+        byte[] file = Files.readAllBytes(path);
+        int zEnd = file.length - 4 - movie.getScreenwriter().getLocation().getName().getBytes(StandardCharsets.UTF_8).length;
+        ByteBuffer payload = ByteBuffer.allocate(file.length - BinarySnapshot.HEADER_SIZE - 8)
+                .put(file, BinarySnapshot.HEADER_SIZE, zEnd - 9 - BinarySnapshot.HEADER_SIZE)
+                .put((byte) -1)
+                .put(file, zEnd, file.length - zEnd);
+        payload.putInt(0, payload.capacity() - 4);
+        var crc = new CRC32();
+        crc.update(payload.array());
+        ByteBuffer header = ByteBuffer.allocate(BinarySnapshot.HEADER_SIZE).putInt(BinarySnapshot.MAGIC)
+                .putInt(BinarySnapshot.VERSION).putLong(1).putLong(payload.capacity()).putInt((int) crc.getValue());
+        Files.write(path, header.array());
+        Files.write(path, payload.array(), StandardOpenOption.APPEND);
+
+        var exception = assertThrows(IOException.class, () -> BinarySnapshot.read(path, m -> true));
+        assertEquals("запись 0 некорректна: Location.z отсутствует", exception.getMessage());
+        var collectionManager = new CollectionManager(new DumpManager(path.toString(), console));
+        assertFalse(collectionManager.loadCollection());
+        assertTrue(collectionManager.getCollection().isEmpty());
+        assertNull(collectionManager.nearestScreenwriter(0, 0, 0));
+    }
+
+    @Test
+    void emptyCollectionRoundTrips() throws Exception {
+        Path path = dir.resolve("empty.bin");
+        BinarySnapshot.write(path, List.of());
+        assertEquals(BinarySnapshot.HEADER_SIZE, Files.size(path));
+        assertIterableEquals(List.of(), read(path));
+    }
+}
@@ -0,0 +1,271 @@
+package managers;
+
+import commands.Save;
+import moduls.Movie;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utility.SilentConsole;
+import utility.TestMovies;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalManagerTest {
+    @TempDir
+    Path dir;
+
+    private final SilentConsole console = new SilentConsole();
+    private final TestMovies movies = new TestMovies(6);
+
+    private JournalManager journal() {
+        return new JournalManager(dir.resolve("collection.json.journal").toString(), console, JournalManager.Durability.FSYNC);
+    }
+
+    private CollectionManager reload() {
+        var collectionManager = new CollectionManager(new DumpManager(dir.resolve("collection.json").toString(), console), journal());
+        collectionManager.loadCollection();
+        return collectionManager;
+    }
+
+    private Path journalPath() {
+        return dir.resolve("collection.json.journal");
+    }
+
+    private static List<String> contents(CollectionManager collectionManager) {
+        return collectionManager.getCollection().stream().map(TestMovies::describe).toList();
+    }
+
+    @Test
+    void replayRestoresEveryOperationKind() throws Exception {
+        var journal = journal();
+        var collectionManager = new CollectionManager(new DumpManager(dir.resolve("collection.json").toString(), console), journal);
+        for (long id = 1; id <= 5; id++) collectionManager.add(movies.next(id));
+        collectionManager.clear();
+        for (long id = 6; id <= 40; id++) collectionManager.add(movies.next(id));
+        assertTrue(collectionManager.update(movies.next(10)));
+        assertTrue(collectionManager.remove(20));
+        Movie bound = collectionManager.getCollection().stream().skip(5).findFirst().orElseThrow();
+        assertEquals(5, collectionManager.removeLower(bound));
+        journal.close();
+        long journalSize = Files.size(journalPath());
+
+        var reloaded = reload();
+        assertIterableEquals(contents(collectionManager), contents(reloaded));
+        // воспроизведение не должно записывать операции в журнал повторно
+        assertEquals(journalSize, Files.size(journalPath()));
+        assertTrue(console.getErrors().stream().noneMatch(error -> error.toLowerCase().contains("журнал")), console.getErrors().toString());
+    }
+
+    @Test
+    void saveDropsSavedRecordsFromJournal() throws Exception {
+        var journal = journal();
+        var collectionManager = new CollectionManager(new DumpManager(dir.resolve("collection.json").toString(), console), journal);
+        for (long id = 1; id <= 10; id++) collectionManager.add(movies.next(id));
+        collectionManager.saveCollection();
+        assertFalse(Files.exists(journalPath()));
+        assertFalse(Files.exists(dir.resolve("collection.json.tmp")));
+
+        collectionManager.add(movies.next(11));
+        collectionManager.remove(2);
+        journal.close();
+        assertEquals(2, Files.readAllLines(journalPath()).size());
+
+        var reloaded = reload();
+        assertIterableEquals(contents(collectionManager), contents(reloaded));
+    }
+
+    @Test
+    void failedSaveKeepsPreviousFileAndJournal() throws Exception {
+        var journal = journal();
+        var collectionManager = new CollectionManager(new DumpManager(dir.resolve("collection.json").toString(), console), journal);
+        for (long id = 1; id <= 5; id++) collectionManager.add(movies.next(id));
+        collectionManager.saveCollection();
+        String saved = Files.readString(dir.resolve("collection.json"));
+        collectionManager.add(movies.next(6));
+        // временный файл занят непустым каталогом, поэтому запись прерывается до замены основного файла
+        Files.createDirectories(dir.resolve("collection.json.tmp").resolve("busy"));
+
+        assertFalse(collectionManager.saveCollectionInBackground().join());
+        assertEquals(saved, Files.readString(dir.resolve("collection.json")));
+        journal.close();
+        assertEquals(1, Files.readAllLines(journalPath()).size());
+        assertIterableEquals(contents(collectionManager), contents(reload()));
+    }
+
+    @Test
+    void tornLastRecordIsSkippedAndCutOff() throws Exception {
+        var journal = journal();
+        for (long id = 1; id <= 3; id++) journal.logAdd(movies.next(id));
+        journal.close();
+        long intact = Files.size(journalPath());
+        Files.writeString(journalPath(), "{\"op\":\"add\",\"movie\":{\"id\":4,", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        var reloaded = reload();
+        assertEquals(3, reloaded.getCollection().size());
+        assertNull(reloaded.getById(4));
+        assertTrue(console.getErrors().stream().anyMatch(error -> error.startsWith("Журнал поврежден после записи 3")),
+                console.getErrors().toString());
+        assertEquals(intact, Files.size(journalPath()));
+
+        // следующая запись не должна склеиться с отрезанным хвостом
+        console.getErrors().clear();
+        reloaded.add(movies.next(5));
+        assertIterableEquals(contents(reloaded), contents(reload()));
+        assertTrue(console.getErrors().stream().noneMatch(error -> error.toLowerCase().contains("журнал")), console.getErrors().toString());
+    }
+
+    @Test
+    void unterminatedLastRecordIsReplayed() throws Exception {
+        var journal = journal();
+        for (long id = 1; id <= 3; id++) journal.logAdd(movies.next(id));
+        journal.close();
+        String text = Files.readString(journalPath());
+        Files.writeString(journalPath(), text.substring(0, text.length() - 1));
+
+        var reloaded = reload();
+        assertNotNull(reloaded.getById(3));
+        reloaded.add(movies.next(4));
+        assertIterableEquals(contents(reloaded), contents(reload()));
+        assertTrue(console.getErrors().stream().noneMatch(error -> error.toLowerCase().contains("журнал")), console.getErrors().toString());
+    }
+
+    @Test
+    void invalidRecordInMiddleIsReportedAndLaterRecordsReplayed() throws Exception {
+        var journal = journal();
+        journal.logAdd(movies.next(1));
+        journal.close();
+        String valid = Files.readAllLines(journalPath()).get(0);
+        Files.writeString(journalPath(), String.join("\n",
+                "{\"op\":\"add\",\"movie\":{\"id\":2,",
+                valid.replace("\"id\":1,", "\"id\":3,").replaceFirst("\"z\":-?\\d+", "\"z\":null"),
+                valid.replace("\"id\":1,", "\"id\":4,").replaceFirst("\"genre\":\"\\w+\"", "\"genre\":\"HORROR\""),
+                "{\"op\":\"rename\",\"id\":1}",
+                ""), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        var after = journal();
+        after.logAdd(movies.next(5));
+        after.logRemove(1);
+        after.close();
+
+        var reloaded = reload();
+        assertEquals(List.of(5L), reloaded.getCollection().stream().map(Movie::getId).toList());
+        List<String> errors = console.getErrors().stream().filter(error -> error.startsWith("Некорректная запись в журнале")).toList();
+        assertEquals(4, errors.size(), console.getErrors().toString());
+        assertTrue(errors.get(1).contains("Location.z"), errors.get(1));
+        assertTrue(errors.get(2).contains("Movie.genre"), errors.get(2));
+    }
+
+    @Test
+    void discardUnsavedChangesRestoresLastSave() throws Exception {
+        var journal = journal();
+        var collectionManager = new CollectionManager(new DumpManager(dir.resolve("collection.json").toString(), console), journal);
+        for (long id = 1; id <= 5; id++) collectionManager.add(movies.next(id));
+        collectionManager.saveCollection();
+        List<String> saved = contents(collectionManager);
+        collectionManager.add(movies.next(6));
+        collectionManager.remove(1);
+        collectionManager.discardUnsavedChanges();
+        journal.close();
+
+        assertIterableEquals(saved, contents(reload()));
+    }
+
+    @Test
+    void markTakenBeforeEarlierDiscardStaysValid() throws Exception {
+        var journal = journal();
+        journal.logAdd(movies.next(1));
+        long first = journal.mark();
+        journal.logAdd(movies.next(2));
+        long second = journal.mark();
+        journal.logAdd(movies.next(3));
+
+        journal.discardUpTo(first);
+        journal.logAdd(movies.next(4));
+        journal.discardUpTo(second);
+        journal.discardUpTo(first);
+        journal.close();
+
+        var collectionManager = new CollectionManager(new DumpManager(dir.resolve("missing.json").toString(), console), journal());
+        collectionManager.loadCollection();
+        assertNull(collectionManager.getById(1));
+        assertNull(collectionManager.getById(2));
+        assertNotNull(collectionManager.getById(3));
+        assertNotNull(collectionManager.getById(4));
+    }
+
+    @Test
+    void twoQueuedSavesKeepLaterChanges() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var dumpManager = new DumpManager(dir.resolve("collection.json").toString(), console) {
+            @Override
+            public boolean writeCollection(Collection<Movie> collection) {
+                started.countDown();
+                try {
+                    assertTrue(release.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.writeCollection(collection);
+            }
+        };
+        var journal = journal();
+        var collectionManager = new CollectionManager(dumpManager, journal);
+        for (long id = 1; id <= 100; id++) collectionManager.add(movies.next(id));
+
+        var first = collectionManager.saveCollectionInBackground();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        collectionManager.add(movies.next(101));
+        var second = collectionManager.saveCollectionInBackground();
+        collectionManager.add(movies.next(102));
+        collectionManager.add(movies.next(103));
+        release.countDown();
+        assertTrue(first.join());
+        assertTrue(second.join());
+        journal.close();
+
+        var reloaded = reload();
+        assertEquals(103, reloaded.getCollection().size());
+        for (long id = 1; id <= 103; id++) assertNotNull(reloaded.getById(id), "id " + id);
+    }
+
+    @Test
+    void saveReportsResultFromCallingThread() throws Exception {
+        var writers = new ConcurrentLinkedQueue<String>();
+        var recording = new SilentConsole() {
+            @Override
+            public void println(Object obj) {
+                writers.add(Thread.currentThread().getName());
+            }
+
+            @Override
+            public void printError(Object obj) {
+                writers.add(Thread.currentThread().getName());
+            }
+        };
+        var collectionManager = new CollectionManager(new DumpManager(dir.resolve("collection.json").toString(), recording), journal());
+        for (long id = 1; id <= 5; id++) collectionManager.add(movies.next(id));
+        var save = new Save(recording, collectionManager);
+
+        assertTrue(save.apply(new String[]{"save", ""}).getExitCode());
+        assertTrue(save.apply(new String[]{"save", "background"}).getMessage().contains("поставлено в очередь"));
+        assertTrue(collectionManager.awaitSave());
+
+        Files.createDirectories(dir.resolve("collection.json.tmp").resolve("busy"));
+        var failed = save.apply(new String[]{"save", ""});
+        assertFalse(failed.getExitCode());
+        assertTrue(failed.getMessage().contains("не сохранена"), failed.getMessage());
+        save.apply(new String[]{"save", "background"});
+        assertFalse(collectionManager.awaitSave());
+
+        assertFalse(writers.contains("collection-saver"), writers.toString());
+    }
+}
@@ -0,0 +1,132 @@
+package managers;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import moduls.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utility.SilentConsole;
+import utility.TestMovies;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieAdapterTest {
+    private static final String VALID = "{\"id\":7,\"name\":\"Dune\",\"coordinates\":{\"x\":1,\"y\":2},"
+            + "\"creationDate\":\"2020-02-29\",\"oscarsCount\":3,\"genre\":\"COMEDY\",\"mpaaRating\":\"PG_13\","
+            + "\"screenwriter\":{\"name\":\"Coen\",\"height\":180.5,\"eyeColor\":\"RED\","
+            + "\"location\":{\"x\":1.5,\"y\":-2,\"z\":3,\"name\":\"Fargo\"}}}";
+
+    @TempDir
+    Path dir;
+
+    private final SilentConsole console = new SilentConsole();
+    private final Gson gson = DumpManager.gsonBuilder().serializeNulls().create();
+
+    /**
+     * Фильмы со строками, которые нужно экранировать, и граничными числами
+     */
+    private static List<Movie> movies() {
+        List<Movie> movies = new ArrayList<>(Arrays.asList(new TestMovies(9).generate(2000)));
+        String[] names = {"\"Quoted\", [array] {object}", "back\\slash \\\" \\n", "tab\tnew\nline\u0001",
+                "Ёжик в тумане 🦔", "</script>&amp;", "  "};
+        for (int i = 0; i < names.length; i++) {
+            var location = new Location(i % 2 == 0 ? 1e-300 : -Double.MAX_VALUE, Long.MIN_VALUE + i, Long.MAX_VALUE - i, names[i]);
+            var screenwriter = new Person(names[names.length - 1 - i], Float.MIN_VALUE, Color.values()[i % Color.values().length], location);
+            movies.add(new Movie(3000 + i, names[i], new Coordinates(516, Integer.MIN_VALUE), LocalDate.of(1, 1, 1).plusYears(i * 1000L),
+                    Long.MAX_VALUE - i, MovieGenre.values()[i % MovieGenre.values().length],
+                    MpaaRating.values()[i % MpaaRating.values().length], screenwriter));
+        }
+        return movies;
+    }
+
+    private static List<String> describe(Iterable<Movie> movies) {
+        List<String> result = new ArrayList<>();
+        for (Movie movie : movies) result.add(TestMovies.describe(movie));
+        return result;
+    }
+
+    @Test
+    void jsonBinaryAndParallelPathsKeepEveryField() throws Exception {
+        List<Movie> movies = movies();
+        List<String> expected = describe(movies);
+
+        Path json = dir.resolve("collection.json");
+        assertTrue(new DumpManager(json.toString(), console).writeCollection(movies));
+        List<Movie> fromJson = new ArrayList<>();
+        assertTrue(new DumpManager(json.toString(), console).readCollection(fromJson::add));
+        assertIterableEquals(expected, describe(fromJson));
+
+        Path binary = dir.resolve("collection.bin");
+        BinarySnapshot.write(binary, fromJson);
+        List<Movie> fromBinary = new ArrayList<>();
+        assertTrue(BinarySnapshot.read(binary, fromBinary::add));
+        assertIterableEquals(expected, describe(fromBinary));
+
+        Path lines = dir.resolve("collection.ndjson");
+        try (BufferedWriter writer = Files.newBufferedWriter(lines, StandardCharsets.UTF_8)) {
+            for (Movie movie : fromBinary) {
+                writer.write(gson.toJson(movie));
+                writer.newLine();
+            }
+        }
+        var loader = new ParallelLoader(gson.getAdapter(Movie.class), ForkJoinPool.commonPool());
+        Movie[] sorted = movies.toArray(new Movie[0]);
+        Arrays.sort(sorted);
+        assertIterableEquals(describe(Arrays.asList(sorted)), describe(Arrays.asList(loader.load(lines))));
+        assertIterableEquals(describe(Arrays.asList(sorted)), describe(Arrays.asList(loader.load(json))));
+        assertTrue(console.getErrors().isEmpty(), console.getErrors().toString());
+    }
+
+    @Test
+    void writesSameJsonAsReflectiveBinding() {
+        Gson reflective = new GsonBuilder().registerTypeAdapter(LocalDate.class, new LocalDateAdapter()).serializeNulls().create();
+        for (Movie movie : movies()) {
+            assertEquals(JsonParser.parseString(reflective.toJson(movie)), JsonParser.parseString(gson.toJson(movie)));
+            assertEquals(TestMovies.describe(movie), TestMovies.describe(gson.fromJson(reflective.toJson(movie), Movie.class)));
+        }
+    }
+
+    @Test
+    void unknownFieldsAreSkipped() {
+        String json = VALID.replace("\"name\":\"Dune\"", "\"name\":\"Dune\",\"extra\":{\"a\":[1,{\"b\":null}]},\"more\":null");
+        assertEquals(TestMovies.describe(gson.fromJson(VALID, Movie.class)), TestMovies.describe(gson.fromJson(json, Movie.class)));
+    }
+
+    @Test
+    void invalidFieldsAreRejectedWithFieldName() {
+        String[][] cases = {
+                {"\"id\":7", "\"id\":0", "Movie.id"},
+                {"\"name\":\"Dune\"", "\"name\":\"\"", "Movie.name"},
+                {"\"coordinates\":{\"x\":1,\"y\":2}", "\"coordinates\":null", "Movie.coordinates"},
+                {"\"x\":1,\"y\":2", "\"x\":517,\"y\":2", "координата x"},
+                {"\"2020-02-29\"", "\"2021-02-29\"", "Некорректная дата"},
+                {"\"2020-02-29\"", "\"2020-1-01\"", "Некорректная дата"},
+                {"\"oscarsCount\":3", "\"oscarsCount\":0", "Movie.oscarsCount"},
+                {"\"COMEDY\"", "\"HORROR\"", "Movie.genre"},
+                {"\"PG_13\"", "null", "Movie.mpaaRating"},
+                {"\"name\":\"Coen\"", "\"name\":null", "Person.name"},
+                {"\"height\":180.5", "\"height\":0", "Person.height"},
+                {"\"RED\"", "\"PINK\"", "Person.eyeColor"},
+                {"\"z\":3", "\"z\":null", "Location.z"},
+                {",\"name\":\"Fargo\"", "", "Location.name"},
+        };
+        for (String[] test : cases) {
+            assertTrue(VALID.contains(test[0]), test[0]);
+            String json = VALID.replace(test[0], test[1]);
+            var exception = assertThrows(JsonParseException.class, () -> gson.fromJson(json, Movie.class), json);
+            assertTrue(exception.getMessage().contains(test[2]), exception.getMessage());
+        }
+    }
+}
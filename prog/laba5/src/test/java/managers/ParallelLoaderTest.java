@@ -0,0 +1,148 @@
+package managers;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import moduls.Movie;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utility.SilentConsole;
+import utility.TestMovies;
+
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelLoaderTest {
+    /**
+     * примерный размер диапазона в ParallelLoader
+     */
+    private static final long CHUNK_SIZE = 4L << 20;
+    /**
+     * Столько фильмов дают файл в несколько диапазонов
+     */
+    private static final int SIZE = 40_000;
+
+    @TempDir
+    Path dir;
+
+    private final SilentConsole console = new SilentConsole();
+    private final Gson gson = DumpManager.gsonBuilder().create();
+
+    /**
+     * Фильмы, в строковых полях которых есть разделители JSON и экранированные символы:
+     * при поиске границ диапазонов они не должны приниматься за границы элементов
+     */
+    private static Movie[] movies(int size) {
+        Movie[] movies = new TestMovies(8).generate(size);
+        for (Movie movie : movies) {
+            movie.setName(movie.getName() + ", \"part\" ]}{[ \\" + movie.getId() % 7);
+            var location = movie.getScreenwriter().getLocation();
+            location.setName(location.getName() + " \\\"],\n}");
+        }
+        return movies;
+    }
+
+    private static List<String> describe(Movie[] movies) {
+        Movie[] sorted = movies.clone();
+        Arrays.sort(sorted);
+        return Arrays.stream(sorted).map(TestMovies::describe).toList();
+    }
+
+    private Movie[] load(Path path) throws Exception {
+        return new ParallelLoader(gson.getAdapter(Movie.class), ForkJoinPool.commonPool()).load(path);
+    }
+
+    private void writeLines(Path path, Movie[] movies) throws Exception {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (Movie movie : movies) {
+                writer.write(gson.toJson(movie));
+                writer.newLine();
+            }
+        }
+    }
+
+    @Test
+    void jsonArraySplitIntoManyChunksLoadsEveryMovie() throws Exception {
+        Movie[] movies = movies(SIZE);
+        Path path = dir.resolve("collection.json");
+        assertTrue(new DumpManager(path.toString(), console).writeCollection(Arrays.asList(movies)));
+        assertTrue(Files.size(path) > 3 * CHUNK_SIZE, "файл должен делиться на несколько диапазонов");
+
+        assertIterableEquals(describe(movies), Arrays.stream(load(path)).map(TestMovies::describe).toList());
+    }
+
+    @Test
+    void ndjsonSplitIntoManyChunksLoadsEveryMovie() throws Exception {
+        Movie[] movies = movies(SIZE);
+        Path path = dir.resolve("collection.ndjson");
+        writeLines(path, movies);
+        assertTrue(Files.size(path) > 2 * CHUNK_SIZE, "файл должен делиться на несколько диапазонов");
+
+        assertIterableEquals(describe(movies), Arrays.stream(load(path)).map(TestMovies::describe).toList());
+    }
+
+    @Test
+    void smallAndEmptyArraysLoad() throws Exception {
+        Path path = dir.resolve("small.json");
+        Movie[] movies = movies(3);
+        new DumpManager(path.toString(), console).writeCollection(Arrays.asList(movies));
+        assertIterableEquals(describe(movies), Arrays.stream(load(path)).map(TestMovies::describe).toList());
+
+        Files.writeString(path, " [ ] ");
+        assertEquals(0, load(path).length);
+    }
+
+    @Test
+    void duplicateIdInDifferentChunksIsRejected() throws Exception {
+        Movie[] movies = movies(SIZE);
+        movies[SIZE - 1].setId(movies[0].getId());
+        Path path = dir.resolve("collection.ndjson");
+        writeLines(path, movies);
+
+        var exception = assertThrows(ParallelLoader.LoadException.class, () -> load(path));
+        assertEquals("Повторяющийся id: " + movies[0].getId(), exception.getMessage());
+    }
+
+    @Test
+    void unclosedArrayIsRejected() throws Exception {
+        Path path = dir.resolve("collection.json");
+        new DumpManager(path.toString(), console).writeCollection(Arrays.asList(movies(10)));
+        String text = Files.readString(path);
+        Files.writeString(path, text.substring(0, text.lastIndexOf(']')));
+
+        assertThrows(EOFException.class, () -> load(path));
+    }
+
+    @Test
+    void malformedMovieInsideChunkIsReportedNotWrapped() throws Exception {
+        Movie[] movies = movies(SIZE);
+        Path path = dir.resolve("collection.ndjson");
+        writeLines(path, movies);
+        String text = Files.readString(path);
+        int middle = text.indexOf('\n', text.length() / 2) + 1;
+        Files.writeString(path, text.substring(0, middle) + "{\"id\": : 1}\n" + text.substring(middle));
+
+        assertThrows(IOException.class, () -> load(path));
+        assertNull(new DumpManager(path.toString(), console).readCollectionParallel());
+        assertTrue(console.getErrors().get(0).startsWith("Ошибка разбора JSON"), console.getErrors().toString());
+    }
+
+    @Test
+    void invalidMovieInsideChunkIsRejectedWithFieldName() throws Exception {
+        Movie[] movies = movies(SIZE);
+        movies[SIZE / 2].setOscarsCount(-1);
+        Path path = dir.resolve("collection.ndjson");
+        writeLines(path, movies);
+
+        var exception = assertThrows(JsonParseException.class, () -> load(path));
+        assertTrue(exception.getMessage().contains("Movie.oscarsCount"), exception.getMessage());
+    }
+}
@@ -0,0 +1,142 @@
+package managers;
+
+import moduls.Location;
+import moduls.Movie;
+import moduls.MovieGenre;
+import moduls.MpaaRating;
+import org.junit.jupiter.api.Test;
+import utility.SilentConsole;
+import utility.TestMovies;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedCollectionManagerTest {
+    private static ShardedCollectionManager sharded(int shards) {
+        return new ShardedCollectionManager(new DumpManager("sharded.json", new SilentConsole()), null, shards);
+    }
+
+    private static List<String> describe(Iterable<Movie> movies) {
+        List<String> result = new ArrayList<>();
+        for (Movie movie : movies) result.add(TestMovies.describe(movie));
+        return result;
+    }
+
+    private static List<Movie> collect(Consumer<Consumer<Movie>> query) {
+        List<Movie> result = new ArrayList<>();
+        query.accept(result::add);
+        return result;
+    }
+
+    /**
+     * Квадраты расстояний до ближайших элементов: при равных расстояниях менеджеры могут выбрать разные элементы
+     */
+    private static List<Long> nearestDistances(CollectionManager collectionManager, int x, int y) {
+        return collectionManager.nearestMovies(x, y, 7).stream().map(movie -> {
+            long dx = movie.getCoordinates().getX() - x;
+            long dy = movie.getCoordinates().getY() - y;
+            return dx * dx + dy * dy;
+        }).toList();
+    }
+
+    private static double screenwriterDistance(Movie movie, double x, long y, long z) {
+        Location location = movie.getScreenwriter().getLocation();
+        return Math.hypot(Math.hypot(location.getX() - x, location.getY() - y), location.getZ() - z);
+    }
+
+    private static void assertEquivalent(CollectionManager expected, ShardedCollectionManager actual, Movie probe) {
+        assertIterableEquals(describe(expected.getCollection()), describe(actual.getCollection()));
+        assertEquals(expected.getFreeId(), actual.getFreeId());
+        assertSame(expected.getFirst(), actual.getFirst());
+        assertSame(expected.getLast(), actual.getLast());
+        assertIterableEquals(expected.streamOscarsBetween(2, 5).toList(), actual.streamOscarsBetween(2, 5).toList());
+        assertIterableEquals(expected.streamTopOscars(17).toList(), actual.streamTopOscars(17).toList());
+        assertIterableEquals(collect(action -> expected.forEachWithScreenwriterLessThan(probe.getScreenwriter(), action)),
+                collect(action -> actual.forEachWithScreenwriterLessThan(probe.getScreenwriter(), action)));
+        assertIterableEquals(collect(action -> expected.forEachByIdDescending(5, 40, action)),
+                collect(action -> actual.forEachByIdDescending(5, 40, action)));
+        // агрегаты шардов - снимки без полной гистограммы oscarsCount, поэтому сравниваются значения, а не matches
+        var expectedAggregates = expected.getAggregates();
+        var actualAggregates = actual.getAggregates();
+        assertEquals(expectedAggregates.getCount(), actualAggregates.getCount());
+        assertEquals(expectedAggregates.getOscarsSum(), actualAggregates.getOscarsSum());
+        assertEquals(expectedAggregates.getOscarsMin(), actualAggregates.getOscarsMin());
+        assertEquals(expectedAggregates.getOscarsMax(), actualAggregates.getOscarsMax());
+        assertEquals(expectedAggregates.getGenreCounts(), actualAggregates.getGenreCounts());
+        assertEquals(expectedAggregates.getRatingCounts(), actualAggregates.getRatingCounts());
+        assertEquals(expected.countByEyeColor(), actual.countByEyeColor());
+        Set<MovieGenre> genres = Set.of(probe.getGenre());
+        Set<MpaaRating> ratings = Set.of(probe.getMpaaRating());
+        assertEquals(expected.countMatching(genres, ratings, null), actual.countMatching(genres, ratings, null));
+        assertIterableEquals(nearestDistances(expected, 10, 20), nearestDistances(actual, 10, 20));
+        Movie nearest = expected.nearestScreenwriter(1, 2, 3);
+        assertEquals(screenwriterDistance(nearest, 1, 2, 3), screenwriterDistance(actual.nearestScreenwriter(1, 2, 3), 1, 2, 3), 1e-9);
+        assertEquals(expected.forEachInBox(-50, -50, 50, 50, movie -> {
+        }), actual.forEachInBox(-50, -50, 50, 50, movie -> {
+        }));
+    }
+
+    @Test
+    void matchesPlainManagerUnderRandomOperations() {
+        Movie[] pool = new TestMovies(230).generate(2000);
+        for (int shards : new int[]{1, 3, 4, 16}) {
+            var expected = new CollectionManager(new DumpManager("plain.json", new SilentConsole()));
+            var actual = sharded(shards);
+            var random = new Random(shards);
+            for (int step = 0; step < 10_000; step++) {
+                int op = random.nextInt(1000);
+                Movie movie = pool[random.nextInt(pool.length)];
+                if (op < 600) {
+                    assertEquals(expected.add(movie), actual.add(movie));
+                } else if (op < 990) {
+                    assertEquals(expected.remove(movie.getId()), actual.remove(movie.getId()));
+                } else if (op < 998) {
+                    Movie other = pool[random.nextInt(pool.length)];
+                    Movie updated = new Movie(movie.getId(), other.getName(), other.getCoordinates(), other.getOscarsCount(),
+                            other.getGenre(), other.getMpaaRating(), other.getScreenwriter());
+                    assertEquals(expected.update(updated), actual.update(updated));
+                } else {
+                    assertEquals(expected.removeLower(movie), actual.removeLower(movie));
+                }
+                if (step % 500 == 0 && !expected.getCollection().isEmpty()) assertEquivalent(expected, actual, movie);
+            }
+            assertEquivalent(expected, actual, pool[0]);
+        }
+    }
+
+    @Test
+    void concurrentRemoveAndReAddKeepFreeIdsConsistent() throws Exception {
+        int size = 32;
+        var collectionManager = sharded(4);
+        Movie[] movies = new TestMovies(23).generate(size);
+        for (Movie movie : movies) collectionManager.add(movie);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                var random = ThreadLocalRandom.current();
+                for (int i = 0; i < 50_000; i++) {
+                    Movie movie = movies[random.nextInt(size)];
+                    if (random.nextBoolean()) collectionManager.remove(movie.getId());
+                    else collectionManager.add(movie);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) thread.join();
+
+        // Каждый свободный id должен отсутствовать в коллекции, а каждый занятый - присутствовать:
+        // заполняем свободные id до size и проверяем, что коллекция стала полной
+        for (Long id = collectionManager.getFreeId(); id <= size; id = collectionManager.getFreeId()) {
+            assertNull(collectionManager.getById(id), "свободный id " + id + " занят");
+            assertTrue(collectionManager.add(movies[(int) (id - 1)]));
+        }
+        assertEquals(size, collectionManager.getCollection().size());
+    }
+}
@@ -0,0 +1,96 @@
+package query;
+
+import managers.CollectionManager;
+import managers.ConcurrentCollectionManager;
+import managers.DumpManager;
+import managers.ShardedCollectionManager;
+import moduls.Movie;
+import org.junit.jupiter.api.Test;
+import utility.SilentConsole;
+import utility.TestMovies;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryPlannerTest {
+    private static final String[] CONDITIONS = {"genre = COMEDY", "genre in (ACTION, WESTERN)", "mpaaRating = PG_13",
+            "mpaaRating != R", "screenwriter.eyeColor = RED", "screenwriter.eyeColor in (BLUE, GREEN)", "oscarsCount > 3",
+            "oscarsCount <= 7", "oscarsCount = 5", "oscarsCount != 2", "oscarsCount in (1, 9)", "id = 17", "id < 300",
+            "screenwriter.height < 180", "coordinates.x > 0", "creationDate > 2010-01-01", "name != \"Dune 3\""};
+    private static final String[] ORDERS = {"", " order by id desc", " order by oscarsCount", " order by oscarsCount desc",
+            " order by screenwriter.height desc", " order by name", " order by id"};
+
+    private final Movie[] movies = new TestMovies(25).generate(3000);
+
+    private List<CollectionManager> managers() {
+        List<CollectionManager> managers = List.of(
+                new CollectionManager(new DumpManager("query.json", new SilentConsole())),
+                new ConcurrentCollectionManager(new DumpManager("query.json", new SilentConsole()), null),
+                new ShardedCollectionManager(new DumpManager("query.json", new SilentConsole()), null, 4));
+        for (CollectionManager collectionManager : managers) {
+            for (Movie movie : movies) collectionManager.add(movie);
+        }
+        return managers;
+    }
+
+    /**
+     * Результат запроса, вычисленный полным перебором без индексов
+     */
+    private List<Movie> bruteForce(Query query) {
+        return Arrays.stream(movies)
+                .filter(movie -> query.getConditions().stream().allMatch(condition -> condition.test(movie)))
+                .sorted(query.comparator())
+                .limit(query.getLimit() == null ? Long.MAX_VALUE : query.getLimit())
+                .toList();
+    }
+
+    @Test
+    void plansReturnSameResultsAsBruteForce() throws Exception {
+        var managers = managers();
+        var random = new Random(25);
+        Map<QueryPlan.Access, Integer> used = new EnumMap<>(QueryPlan.Access.class);
+        for (int iteration = 0; iteration < 2000; iteration++) {
+            var text = new StringBuilder();
+            int conditions = random.nextInt(4);
+            for (int i = 0; i < conditions; i++) {
+                text.append(i == 0 ? "where " : " and ").append(CONDITIONS[random.nextInt(CONDITIONS.length)]);
+            }
+            text.append(ORDERS[random.nextInt(ORDERS.length)]);
+            if (random.nextBoolean()) text.append(" limit ").append(random.nextInt(60));
+
+            Query query = QueryParser.parse(text.toString());
+            List<Movie> expected = bruteForce(query);
+            for (CollectionManager collectionManager : managers) {
+                QueryPlan plan = QueryPlanner.plan(query, collectionManager);
+                used.merge(plan.getAccess(), 1, Integer::sum);
+                assertIterableEquals(expected, plan.execute(collectionManager),
+                        text + " (" + collectionManager.getClass().getSimpleName() + ")\n" + plan);
+            }
+        }
+        for (QueryPlan.Access access : QueryPlan.Access.values()) {
+            assertTrue(used.containsKey(access), "способ доступа " + access + " ни разу не выбран: " + used);
+        }
+    }
+
+    @Test
+    void idEqualityUsesIdLookup() throws Exception {
+        var collectionManager = managers().get(0);
+        Query query = QueryParser.parse("where id = 17 and genre in (ACTION, COMEDY) and oscarsCount >= 1");
+        QueryPlan plan = QueryPlanner.plan(query, collectionManager);
+        assertEquals(QueryPlan.Access.ID_LOOKUP, plan.getAccess());
+        assertIterableEquals(bruteForce(query), plan.execute(collectionManager));
+    }
+
+    @Test
+    void invalidQueriesAreRejected() {
+        for (String text : new String[]{"where", "where nothing = 1", "where oscarsCount ~ 1", "where oscarsCount < null",
+                "where genre = HORROR", "limit -1", "limit many", "order id", "where name = \"open", "where id = 1 or id = 2"}) {
+            assertThrows(QueryParser.QueryException.class, () -> QueryParser.parse(text), text);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdAllocatorTest {
+    /**
+     * Проверяемая часть id: все id выше нее всегда свободны
+     */
+    private static final int LIMIT = 300;
+
+    /**
+     * Сверяет распределитель с множеством занятых id из [1, LIMIT]
+     */
+    private static void assertMatches(BitSet used, IdAllocator allocator) {
+        for (int id = 1; id <= LIMIT + 1; id++) assertEquals(!used.get(id), allocator.isFree(id), "id " + id);
+        assertEquals(used.nextClearBit(1), allocator.lowestFree());
+        // отрезки свободных id: по одному на каждую серию свободных id, последняя продолжается до Long.MAX_VALUE
+        int ranges = 0;
+        for (int id = 1; id <= LIMIT + 1; id++) {
+            if (!used.get(id) && (id == 1 || used.get(id - 1))) ranges++;
+        }
+        assertEquals(ranges, allocator.rangeCount());
+    }
+
+    private static List<Long> usedDescending(IdAllocator allocator, long offset, int limit) {
+        List<Long> ids = new ArrayList<>();
+        allocator.forEachUsedDescending(offset, id -> {
+            ids.add(id);
+            return ids.size() < limit;
+        });
+        return ids;
+    }
+
+    @Test
+    void randomReserveAndReleaseKeepRangesMerged() {
+        var random = new Random(3);
+        var allocator = new IdAllocator();
+        var used = new BitSet();
+        for (int step = 0; step < 20_000; step++) {
+            int id = 1 + random.nextInt(LIMIT);
+            if (random.nextBoolean()) {
+                assertEquals(!used.get(id), allocator.reserve(id));
+                used.set(id);
+            } else {
+                assertEquals(used.get(id), allocator.release(id));
+                used.clear(id);
+            }
+            if (step % 100 == 0) assertMatches(used, allocator);
+        }
+        assertMatches(used, allocator);
+    }
+
+    @Test
+    void rebuildMatchesReservingOneByOne() {
+        var random = new Random(4);
+        var used = new BitSet();
+        for (int i = 0; i < LIMIT / 2; i++) used.set(1 + random.nextInt(LIMIT));
+        long[] sorted = used.stream().asLongStream().toArray();
+
+        var rebuilt = new IdAllocator();
+        rebuilt.rebuild(sorted);
+        assertMatches(used, rebuilt);
+
+        var reserved = new IdAllocator();
+        for (long id : sorted) reserved.reserve(id);
+        for (long offset = 0; offset <= sorted.length; offset += 7) {
+            assertIterableEquals(usedDescending(reserved, offset, LIMIT), usedDescending(rebuilt, offset, LIMIT));
+        }
+    }
+
+    @Test
+    void usedDescendingSkipsOffsetAcrossRanges() {
+        var allocator = new IdAllocator();
+        allocator.rebuild(new long[]{1, 2, 3, 7, 8, 20});
+        assertIterableEquals(List.of(20L, 8L, 7L, 3L, 2L, 1L), usedDescending(allocator, 0, 100));
+        assertIterableEquals(List.of(7L, 3L), usedDescending(allocator, 2, 2));
+        assertIterableEquals(List.of(1L), usedDescending(allocator, 5, 100));
+        assertIterableEquals(List.of(), usedDescending(allocator, 6, 100));
+    }
+
+    @Test
+    void boundaryIds() {
+        var allocator = new IdAllocator();
+        assertFalse(allocator.release(0));
+        assertFalse(allocator.release(IdAllocator.MIN_ID));
+        assertTrue(allocator.reserve(Long.MAX_VALUE));
+        assertFalse(allocator.isFree(Long.MAX_VALUE));
+        assertTrue(allocator.isFree(Long.MAX_VALUE - 1));
+        assertIterableEquals(List.of(Long.MAX_VALUE), usedDescending(allocator, 0, 10));
+        assertTrue(allocator.release(Long.MAX_VALUE));
+        assertEquals(1, allocator.rangeCount());
+
+        allocator.rebuild(new long[]{Long.MAX_VALUE - 1, Long.MAX_VALUE});
+        assertEquals(1, allocator.rangeCount());
+        assertEquals(IdAllocator.MIN_ID, allocator.lowestFree());
+        assertFalse(allocator.isFree(Long.MAX_VALUE));
+    }
+}
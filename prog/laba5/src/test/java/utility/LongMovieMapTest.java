@@ -0,0 +1,109 @@
+package utility;
+
+import moduls.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongMovieMapTest {
+    private final TestMovies movies = new TestMovies(2);
+
+    /**
+     * Ключи, попадающие в одну ячейку таблицы минимальной емкости (16)
+     */
+    private static long[] collidingKeys(int count) {
+        long[] keys = new long[count];
+        int found = 0;
+        for (long key = 1; found < count; key++) {
+            if ((LongHash.mix(key) & 15) == 0) keys[found++] = key;
+        }
+        return keys;
+    }
+
+    @Test
+    void removingFromMiddleOfProbeChainKeepsLaterKeysReachable() {
+        long[] keys = collidingKeys(5);
+        var map = new LongMovieMap();
+        for (long key : keys) map.put(key, movies.next(key));
+
+        assertNotNull(map.remove(keys[1]));
+        assertNull(map.get(keys[1]));
+        for (int i = 0; i < keys.length; i++) {
+            if (i != 1) assertEquals(keys[i], map.get(keys[i]).getId());
+        }
+        assertEquals(4, map.size());
+    }
+
+    @Test
+    void putAfterRemoveReusesTombstoneWithoutDuplicatingKey() {
+        long[] keys = collidingKeys(3);
+        var map = new LongMovieMap();
+        for (long key : keys) map.put(key, movies.next(key));
+        map.remove(keys[0]);
+
+        // ключ в конце цепочки не должен попасть в надгробие второй копией
+        Movie replacement = movies.next(keys[2]);
+        assertNotNull(map.put(keys[2], replacement));
+        map.remove(keys[2]);
+        assertNull(map.get(keys[2]));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void churnMatchesHashMap() {
+        var random = new Random(20);
+        var map = new LongMovieMap();
+        Map<Long, Movie> expected = new HashMap<>();
+        List<Long> live = new ArrayList<>();
+        long nextKey = 1;
+        for (int step = 0; step < 200_000; step++) {
+            if (live.size() < 500 || random.nextInt(2) == 0) {
+                long key = nextKey++;
+                Movie movie = movies.next(key);
+                assertNull(map.put(key, movie));
+                expected.put(key, movie);
+                live.add(key);
+            } else {
+                int index = random.nextInt(live.size());
+                long key = live.get(index);
+                live.set(index, live.get(live.size() - 1));
+                live.remove(live.size() - 1);
+                assertSame(expected.remove(key), map.remove(key));
+            }
+            if (step % 10_000 == 0) {
+                for (long key : live) assertSame(expected.get(key), map.get(key));
+                assertNull(map.get(nextKey));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        List<Movie> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        assertEquals(expected.size(), values.size());
+        for (Movie movie : values) assertSame(expected.get(movie.getId()), movie);
+    }
+
+    @Test
+    void tagsSurviveRehashAndEnsureCapacity() {
+        var map = new LongMovieMap();
+        for (long key = 1; key <= 1000; key++) {
+            map.put(key, movies.next(key));
+            map.setTag(key, (int) key * 3);
+        }
+        map.ensureCapacity(100_000);
+        for (long key = 1; key <= 1000; key++) assertEquals((int) key * 3, map.getTag(key));
+
+        map.put(7, movies.next(7));
+        assertEquals(21, map.getTag(7));
+        map.remove(7);
+        map.put(7, movies.next(7));
+        assertEquals(0, map.getTag(7));
+        assertThrows(NoSuchElementException.class, () -> map.getTag(5000));
+    }
+}
@@ -0,0 +1,115 @@
+package utility;
+
+import moduls.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentMovieTreeTest {
+    private final Movie[] movies = new TestMovies(22).generate(2000);
+
+    private static List<Movie> list(Iterator<Movie> iterator) {
+        List<Movie> result = new ArrayList<>();
+        iterator.forEachRemaining(result::add);
+        return result;
+    }
+
+    private static void assertSameContents(TreeSet<Movie> expected, PersistentMovieTree tree) {
+        assertTrue(tree.isValid());
+        assertEquals(expected.size(), tree.size());
+        assertIterableEquals(expected, tree);
+    }
+
+    @Test
+    void randomWithAndWithoutKeepAvlInvariants() {
+        var random = new Random(22);
+        var tree = PersistentMovieTree.EMPTY;
+        var expected = new TreeSet<Movie>();
+        for (int step = 0; step < 20_000; step++) {
+            Movie movie = movies[random.nextInt(movies.length)];
+            if (random.nextInt(3) > 0) {
+                tree = tree.with(movie);
+                expected.add(movie);
+            } else {
+                tree = tree.without(movie);
+                expected.remove(movie);
+            }
+            assertTrue(tree.isValid(), "шаг " + step);
+            assertEquals(expected.size(), tree.size());
+        }
+        assertIterableEquals(expected, tree);
+        assertSame(expected.first(), tree.first());
+        assertSame(expected.last(), tree.last());
+        assertIterableEquals(list(expected.descendingIterator()), list(tree.descendingIterator()));
+    }
+
+    @Test
+    void sequentialInsertionsAndDeletionsStayBalanced() {
+        Movie[] sorted = movies.clone();
+        Arrays.sort(sorted);
+        var tree = PersistentMovieTree.EMPTY;
+        for (Movie movie : sorted) tree = tree.with(movie);
+        assertTrue(tree.isValid());
+        for (int i = sorted.length - 1; i >= sorted.length / 2; i--) tree = tree.without(sorted[i]);
+        assertTrue(tree.isValid());
+        assertEquals(sorted.length / 2, tree.size());
+    }
+
+    @Test
+    void olderVersionsAreUnchanged() {
+        var random = new Random(23);
+        List<PersistentMovieTree> versions = new ArrayList<>();
+        List<TreeSet<Movie>> contents = new ArrayList<>();
+        var tree = PersistentMovieTree.EMPTY;
+        var expected = new TreeSet<Movie>();
+        for (int step = 0; step < 2000; step++) {
+            Movie movie = movies[random.nextInt(300)];
+            if (random.nextBoolean()) {
+                tree = tree.with(movie);
+                expected.add(movie);
+            } else {
+                tree = tree.without(movie);
+                expected.remove(movie);
+            }
+            if (step % 100 == 0) {
+                versions.add(tree);
+                contents.add(new TreeSet<>(expected));
+            }
+        }
+        for (int i = 0; i < versions.size(); i++) assertSameContents(contents.get(i), versions.get(i));
+    }
+
+    @Test
+    void unchangedTreeIsReturnedAsIs() {
+        var tree = PersistentMovieTree.fromSorted(new Movie[]{movies[0]});
+        assertSame(tree, tree.with(movies[0]));
+        assertSame(tree, tree.without(movies[1]));
+        assertTrue(tree.without(movies[0]).isEmpty());
+    }
+
+    @Test
+    void fromSortedTailFromAndRanksMatchTreeSet() {
+        for (int size : new int[]{0, 1, 2, 3, 7, 64, 100, 1000}) {
+            Movie[] sorted = Arrays.copyOf(movies, size);
+            Arrays.sort(sorted);
+            var expected = new TreeSet<>(Arrays.asList(sorted));
+            var tree = PersistentMovieTree.fromSorted(sorted);
+            assertSameContents(expected, tree);
+            for (int rank = 0; rank <= size; rank += Math.max(1, size / 10)) {
+                assertIterableEquals(Arrays.asList(sorted).subList(rank, size), list(tree.iteratorFromRank(rank)));
+            }
+            for (int i = 0; i < size; i += Math.max(1, size / 10)) {
+                Movie bound = sorted[i];
+                assertSameContents(new TreeSet<>(expected.tailSet(bound)), tree.tailFrom(bound));
+                assertIterableEquals(expected.tailSet(bound), list(tree.iteratorFrom(bound)));
+            }
+        }
+    }
+}
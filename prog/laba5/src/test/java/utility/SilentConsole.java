@@ -0,0 +1,64 @@
+package utility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+/**
+ * Консоль для тестов: ничего не выводит, а сообщения об ошибках запоминает
+ */
+public class SilentConsole implements Console {
+    private final List<String> errors = new ArrayList<>();
+
+    /**
+     * @return сообщения об ошибках, выведенные через printError
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public void print(Object obj) {
+    }
+
+    @Override
+    public void println(Object obj) {
+    }
+
+    @Override
+    public String readln() {
+        throw new NoSuchElementException("Ввод в тестах недоступен");
+    }
+
+    @Override
+    public boolean isCanReadln() {
+        return false;
+    }
+
+    @Override
+    public void printError(Object obj) {
+        errors.add(String.valueOf(obj));
+    }
+
+    @Override
+    public void printTable(Object obj1, Object obj2) {
+    }
+
+    @Override
+    public void prompt() {
+    }
+
+    @Override
+    public String getPrompt() {
+        return "";
+    }
+
+    @Override
+    public void selectFileScanner(Scanner obj) {
+    }
+
+    @Override
+    public void selectConsoleScanner() {
+    }
+}
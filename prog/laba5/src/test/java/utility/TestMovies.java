@@ -0,0 +1,64 @@
+package utility;
+
+import moduls.*;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Генератор фильмов для тестов с фиксированным зерном.
+ * Значения полей берутся из небольших диапазонов, чтобы в наборах были повторы oscarsCount, имен и сценаристов
+ */
+public class TestMovies {
+    private static final String[] TITLES = {"Alien", "Brazil", "Casablanca", "Dune", "Fargo"};
+    private static final String[] NAMES = {"Nolan", "Kubrick", "Scott", "Coen"};
+    private static final LocalDate EPOCH = LocalDate.of(2000, 1, 1);
+
+    private final Random random;
+
+    public TestMovies(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @param id id фильма
+     * @return фильм со случайными остальными полями
+     */
+    public Movie next(long id) {
+        var location = new Location(random.nextInt(100) - 50.0, random.nextInt(100) - 50L,
+                (long) random.nextInt(100) - 50, NAMES[random.nextInt(NAMES.length)]);
+        var screenwriter = new Person(NAMES[random.nextInt(NAMES.length)], 150 + random.nextInt(60),
+                Color.values()[random.nextInt(Color.values().length)], location);
+        return new Movie(id, TITLES[random.nextInt(TITLES.length)] + " " + random.nextInt(20),
+                new Coordinates(random.nextInt(200) - 100, random.nextInt(200) - 100),
+                EPOCH.plusDays(random.nextInt(5000)), 1 + random.nextInt(10),
+                MovieGenre.values()[random.nextInt(MovieGenre.values().length)],
+                MpaaRating.values()[random.nextInt(MpaaRating.values().length)], screenwriter);
+    }
+
+    /**
+     * Описание фильма по значениям всех полей, для сравнения коллекций:
+     * у Person и Location нет toString, поэтому Movie.toString для этого не подходит
+     *
+     * @param movie фильм
+     * @return описание
+     */
+    public static String describe(Movie movie) {
+        var screenwriter = movie.getScreenwriter();
+        var location = screenwriter.getLocation();
+        return movie.getId() + " " + movie.getName() + " " + movie.getCoordinates() + " " + movie.getCreationDate()
+                + " " + movie.getOscarsCount() + " " + movie.getGenre() + " " + movie.getMpaaRating()
+                + " " + screenwriter.getName() + " " + screenwriter.getHeight() + " " + screenwriter.getEyeColor()
+                + " " + location.getX() + " " + location.getY() + " " + location.getZ() + " " + location.getName();
+    }
+
+    /**
+     * @param size количество фильмов
+     * @return фильмы с id от 1 до size
+     */
+    public Movie[] generate(int size) {
+        Movie[] movies = new Movie[size];
+        for (int i = 0; i < size; i++) movies[i] = next(i + 1);
+        return movies;
+    }
+}